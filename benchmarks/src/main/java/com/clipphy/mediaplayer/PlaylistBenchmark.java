@@ -0,0 +1,82 @@
+package com.clipphy.mediaplayer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Filling, deduplicating and editing large play queues.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaylistBenchmark {
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    // The queue's files, then every tenth file again as duplicates
+    private List<File> imported;
+    private PlaylistModel queue;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        imported = new ArrayList<>(size + size / 10);
+        for (int i = 0; i < size; i++) {
+            imported.add(new File("/music/artist-" + i / 100 + "/album-" + i / 10 + "/track-" + i + ".mp3"));
+        }
+        for (int i = 0; i < size; i += 10) {
+            imported.add(new File(imported.get(i).getPath()));
+        }
+
+        queue = new PlaylistModel();
+        queue.addAll(imported);
+    }
+
+    @Benchmark
+    public PlaylistModel addAllWithDuplicates() {
+        PlaylistModel model = new PlaylistModel();
+        model.addAll(imported);
+        return model;
+    }
+
+    @Benchmark
+    public PlaylistModel addOneByOne() {
+        PlaylistModel model = new PlaylistModel();
+        for (File file : imported) {
+            model.add(file);
+        }
+        return model;
+    }
+
+    /**
+     * Removes an entry, looks up a later one whose index shifted, and appends the entry
+     * again so the queue keeps its size.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int removeThenIndexOf() {
+        cursor = (cursor + 7919) % queue.size();
+        File removed = queue.remove(cursor);
+        int index = queue.indexOf(queue.get(queue.size() - 1));
+        queue.add(removed);
+        return index;
+    }
+}
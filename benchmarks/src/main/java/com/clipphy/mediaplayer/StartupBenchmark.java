@@ -0,0 +1,115 @@
+package com.clipphy.mediaplayer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures startup by launching the player repeatedly and reading back the
+ * phases it reports before quitting. Cold runs start with an empty data
+ * folder and no class data archive; warm runs reuse the data folder and an
+ * archive recorded by a training run, the way --cds launches do. Run from the
+ * packaged benchmarks jar, since class data sharing only archives classes from
+ * jar files; install the player first:
+ *
+ * <pre>
+ * mvn install
+ * mvn -f benchmarks/pom.xml -P startup-benchmark package exec:exec
+ * </pre>
+ */
+public final class StartupBenchmark {
+
+    private static final int DEFAULT_RUNS = 5;
+    private static final long RUN_TIMEOUT_SECONDS = 60;
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RUNS;
+        Path work = Files.createTempDirectory("tamediaplayer-startup");
+        Path archive = work.resolve("app.jsa");
+        try {
+            List<Map<String, Long>> cold = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                cold.add(run(work, work.resolve("cold-" + i), null));
+            }
+
+            // Records the archive and fills the data folder the warm runs share
+            run(work, work.resolve("warm"), "-XX:ArchiveClassesAtExit=" + archive);
+            List<Map<String, Long>> warm = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                warm.add(run(work, work.resolve("warm"), "-XX:SharedArchiveFile=" + archive));
+            }
+
+            System.out.println("Startup over " + runs + " runs, milliseconds since JVM start:");
+            print("cold", cold);
+            print("warm", warm);
+        } finally {
+            try (Stream<Path> files = Files.walk(work)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    /**
+     * Launches the player once and returns the phases it reported.
+     */
+    private static Map<String, Long> run(Path work, Path dataDir, String vmOption) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(CliphyAppLauncher.javaCommand());
+        if (vmOption != null) {
+            command.add(vmOption);
+        }
+        command.add("-D" + StartupTimer.BENCHMARK_PROPERTY + "=true");
+        command.add("-Dtamediaplayer.dataDir=" + dataDir);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(CliphyAppLauncher.class.getName());
+
+        Path output = work.resolve("output.txt");
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(output.toFile())
+                .start();
+        if (!process.waitFor(RUN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("Startup did not finish within " + RUN_TIMEOUT_SECONDS + " s");
+        }
+
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            if (line.startsWith(StartupTimer.REPORT_PREFIX)) {
+                Map<String, Long> phases = new LinkedHashMap<>();
+                for (String pair : line.substring(StartupTimer.REPORT_PREFIX.length()).trim().split(" ")) {
+                    int equals = pair.indexOf('=');
+                    if (equals > 0) {
+                        phases.put(pair.substring(0, equals), Long.parseLong(pair.substring(equals + 1)));
+                    }
+                }
+                return phases;
+            }
+        }
+        throw new IllegalStateException("No startup phases reported (exit code " + process.exitValue() + "):\n"
+                + String.join("\n", lines));
+    }
+
+    private static void print(String label, List<Map<String, Long>> runs) {
+        StringBuilder line = new StringBuilder(String.format("  %-5s", label));
+        for (String phase : runs.get(0).keySet()) {
+            long[] values = runs.stream().mapToLong(phases -> phases.getOrDefault(phase, 0L)).sorted().toArray();
+            line.append(String.format("  %s median %d (min %d, max %d)",
+                    phase, values[values.length / 2], values[0], values[values.length - 1]));
+        }
+        System.out.println(line);
+    }
+}
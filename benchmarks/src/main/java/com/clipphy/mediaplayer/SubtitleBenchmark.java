@@ -0,0 +1,110 @@
+package com.clipphy.mediaplayer;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing SRT and WebVTT text into cues, and finding the cue on screen at a
+ * given time, both during playback and after random seeks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubtitleBenchmark {
+
+    // Time between lookups during playback, about one frame
+    private static final long FRAME_MILLIS = 40;
+
+    @Param({"1000", "10000"})
+    public int cueCount;
+
+    private String srt;
+    private String vtt;
+    private SubtitleManager manager;
+    private long[] seekTimes;
+    private long lastMillis;
+    private long playbackTime;
+    private int seekIndex;
+
+    @Setup
+    public void setUp() throws IOException {
+        StringBuilder srtText = new StringBuilder();
+        StringBuilder vttText = new StringBuilder("WEBVTT\n\n");
+        long start = 1000;
+        for (int i = 0; i < cueCount; i++) {
+            long end = start + 2500;
+            srtText.append(i + 1).append('\n')
+                    .append(timestamp(start, ',')).append(" --> ").append(timestamp(end, ',')).append('\n')
+                    .append("Line ").append(i).append(" of the subtitle\nwith a second line\n\n");
+            vttText.append(timestamp(start, '.')).append(" --> ").append(timestamp(end, '.')).append('\n')
+                    .append("Line ").append(i).append(" of the <i>subtitle</i>\n\n");
+            start = end + 500;
+        }
+        srt = srtText.toString();
+        vtt = vttText.toString();
+        lastMillis = start;
+
+        // The player's label is only touched when a cue is shown, which the lookup alone never does
+        manager = new SubtitleManager(null);
+        manager.replaceCues(parseSrt());
+
+        Random random = new Random(42);
+        seekTimes = new long[4096];
+        for (int i = 0; i < seekTimes.length; i++) {
+            seekTimes[i] = (long) (random.nextDouble() * lastMillis);
+        }
+    }
+
+    @Benchmark
+    public CueStore parseSrt() throws IOException {
+        CueStore cues = new CueStore();
+        new SrtParser().parse(new StringReader(srt), cues::add);
+        return cues;
+    }
+
+    @Benchmark
+    public CueStore parseWebVtt() throws IOException {
+        CueStore cues = new CueStore();
+        new WebVttParser().parse(new StringReader(vtt), cues::add);
+        return cues;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int lookupDuringPlayback() {
+        playbackTime += FRAME_MILLIS;
+        if (playbackTime > lastMillis) {
+            playbackTime = 0;
+        }
+        return manager.findActiveCue(playbackTime);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int lookupAfterSeek() {
+        seekIndex = (seekIndex + 1) & (seekTimes.length - 1);
+        return manager.findActiveCue(seekTimes[seekIndex]);
+    }
+
+    private static String timestamp(long millis, char separator) {
+        return String.format("%02d:%02d:%02d%c%03d",
+                millis / 3_600_000, millis / 60_000 % 60, millis / 1000 % 60, separator, millis % 1000);
+    }
+}
@@ -0,0 +1,59 @@
+package com.clipphy.mediaplayer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javafx.util.Duration;
+
+/**
+ * Formatting the playback time labels, as MainController.formatTime does,
+ * against the String.format version it replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeFormatBenchmark {
+
+    // Cycle through the first two hours, so both formats are covered
+    private static final int SECONDS = 2 * 60 * 60;
+
+    private final TimeFormatter formatter = new TimeFormatter();
+    private final Duration[] times = new Duration[SECONDS];
+    private int next;
+
+    public TimeFormatBenchmark() {
+        for (int i = 0; i < SECONDS; i++) {
+            times[i] = Duration.seconds(i + 0.5);
+        }
+    }
+
+    @Benchmark
+    public String timeFormatter() {
+        next = next + 1 == SECONDS ? 0 : next + 1;
+        return formatter.format(times[next]);
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        next = next + 1 == SECONDS ? 0 : next + 1;
+        int totalSeconds = (int) times[next].toSeconds();
+        int hours = totalSeconds / 3600;
+        int minutes = totalSeconds / 60 % 60;
+        int seconds = totalSeconds % 60;
+        return hours > 0
+                ? String.format("%d:%02d:%02d", hours, minutes, seconds)
+                : String.format("%02d:%02d", minutes, seconds);
+    }
+}
@@ -18,23 +18,24 @@ public class AboutController implements Initializable {
     @FXML private Label versionLabel;
 
     private Image logoImage; // Store the logo image for reuse
+    private Stage stage;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         // Set the logo image for ImageView
         if (logoImageView != null) {
-            try {
-                // Try to load the static logo image
-                logoImage = new Image(getClass().getResourceAsStream("/com/clipphy/mediaplayer/images/logoicon.png"));
-                if (logoImage == null || logoImage.isError()) {
-                    // Fall back to generated logo if static image fails
-                    logoImage = LogoGenerator.generateDetailedLogo(150);
-                }
-            } catch (Exception e) {
-                // Fall back to generated logo on exception
-                logoImage = LogoGenerator.generateDetailedLogo(150);
+            // The static logo is decoded once per run and shared with the window icon
+            logoImage = ThemeAssets.logo();
+            if (logoImage != null) {
+                logoImageView.setImage(logoImage);
+            } else {
+                // Fall back to generated logo if static image fails; it is rendered in the background
+                LogoGenerator.loadIcons(icons -> {
+                    logoImage = icons.get(LogoGenerator.ABOUT_SIZE);
+                    logoImageView.setImage(logoImage);
+                    setStageIcon(stage);
+                });
             }
-            logoImageView.setImage(logoImage);
         }
 
         // Set version information
@@ -45,8 +46,9 @@ public class AboutController implements Initializable {
 
     // Method to set the title bar icon when Stage is available
     public void setStageIcon(Stage stage) {
+        this.stage = stage; // A generated logo may arrive later
         if (stage != null && logoImage != null) {
-            stage.getIcons().add(logoImage);
+            stage.getIcons().setAll(logoImage);
         }
     }
 
@@ -0,0 +1,28 @@
+package com.clipphy.mediaplayer;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Locates the per-user folder where the player keeps its caches and settings.
+ * Defaults to ~/.tamediaplayer and can be moved with -Dtamediaplayer.dataDir.
+ */
+public final class AppData {
+
+    private static final Path DIRECTORY = Paths.get(System.getProperty("tamediaplayer.dataDir",
+            Paths.get(System.getProperty("user.home"), ".tamediaplayer").toString()));
+
+    private AppData() {
+    }
+
+    public static Path directory() {
+        return DIRECTORY;
+    }
+
+    /**
+     * Returns the path of a file inside the data folder. The folder is created on first write.
+     */
+    public static Path resolve(String name) {
+        return DIRECTORY.resolve(name);
+    }
+}
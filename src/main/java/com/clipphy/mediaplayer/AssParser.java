@@ -0,0 +1,128 @@
+package com.clipphy.mediaplayer;
+
+import java.io.IOException;
+
+/**
+ * Streaming parser for Advanced SubStation Alpha (ASS) and SubStation Alpha (SSA) files.
+ * Reads Dialogue lines from the [Events] section using the column order given by
+ * its Format line. Style override blocks are dropped and \N, \n and \h are
+ * converted to plain line breaks and spaces.
+ */
+public class AssParser extends TextSubtitleParser {
+
+    // Reused for every cue so parsing allocates nothing per cue
+    private final StringBuilder text = new StringBuilder(256);
+
+    // Column positions in Dialogue lines; defaults match the standard v4+ format
+    private int startField = 1;
+    private int endField = 2;
+    private int textField = 9;
+
+    @Override
+    public String[] extensions() {
+        return new String[] {"ass", "ssa"};
+    }
+
+    @Override
+    protected void parseLines(CueSink sink) throws IOException {
+        boolean inEvents = false;
+
+        while (readLine()) {
+            int from = trimStart();
+            int to = trimEnd(from);
+            if (from == to) {
+                continue;
+            }
+
+            if (line.charAt(from) == '[') {
+                inEvents = line.substring(from, to).equalsIgnoreCase("[Events]");
+            } else if (inEvents && lineStartsWith("Format:", from)) {
+                parseFormat(from + "Format:".length(), to);
+            } else if (inEvents && lineStartsWith("Dialogue:", from)) {
+                parseDialogue(from + "Dialogue:".length(), to, sink);
+            }
+        }
+    }
+
+    /**
+     * Reads the column order of Dialogue lines, e.g. "Layer, Start, End, Style, ..., Text".
+     */
+    private void parseFormat(int from, int to) {
+        String[] fields = line.substring(from, to).split(",");
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i].trim();
+            if (field.equalsIgnoreCase("Start")) {
+                startField = i;
+            } else if (field.equalsIgnoreCase("End")) {
+                endField = i;
+            } else if (field.equalsIgnoreCase("Text")) {
+                textField = i;
+            }
+        }
+    }
+
+    /**
+     * Parses one Dialogue line. The Text column is always last and may contain commas.
+     */
+    private void parseDialogue(int from, int to, CueSink sink) {
+        long start = -1;
+        long end = -1;
+        int field = 0;
+        int fieldStart = from;
+
+        for (int i = from; i <= to && field < textField; i++) {
+            if (i == to || line.charAt(i) == ',') {
+                if (field == startField) {
+                    start = parseField(fieldStart, i);
+                } else if (field == endField) {
+                    end = parseField(fieldStart, i);
+                }
+                field++;
+                fieldStart = i + 1;
+            }
+        }
+
+        if (field < textField || start < 0 || end < 0) {
+            return; // Malformed line
+        }
+
+        text.setLength(0);
+        appendPlainText(fieldStart, to);
+        sink.cue(start, end, text);
+    }
+
+    private long parseField(int from, int to) {
+        cursor = from;
+        skipSpaces(to);
+        return parseTimestamp(to);
+    }
+
+    /**
+     * Appends dialogue text with override blocks removed and escapes converted.
+     */
+    private void appendPlainText(int from, int to) {
+        int i = from;
+        while (i < to) {
+            char c = line.charAt(i);
+            if (c == '{') {
+                while (i < to && line.charAt(i) != '}') {
+                    i++;
+                }
+                i++;
+            } else if (c == '\\' && i + 1 < to) {
+                char next = line.charAt(i + 1);
+                if (next == 'N' || next == 'n') {
+                    text.append('\n');
+                } else if (next == 'h') {
+                    text.append(' ');
+                } else {
+                    text.append(c).append(next);
+                }
+                i += 2;
+            } else {
+                text.append(c);
+                i++;
+            }
+        }
+    }
+}
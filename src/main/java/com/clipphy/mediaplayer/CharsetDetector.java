@@ -0,0 +1,153 @@
+package com.clipphy.mediaplayer;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Detects the text encoding of subtitle files.
+ * Checks for a byte order mark first, then looks at a sample of the file
+ * to tell UTF-16 without BOM, valid UTF-8 and legacy single-byte encodings apart.
+ */
+public class CharsetDetector {
+
+    // Number of bytes inspected when there is no byte order mark
+    private static final int SAMPLE_SIZE = 64 * 1024;
+
+    // Encoding used when the sample is neither UTF-8 nor UTF-16
+    private static final Charset LEGACY_CHARSET = legacyCharset();
+
+    private CharsetDetector() {
+    }
+
+    /**
+     * Opens a reader for the file in its detected encoding.
+     * The byte order mark, if any, is skipped and the rest of the file is streamed.
+     *
+     * @param file The text file to open
+     * @return A reader positioned at the first character of the file
+     */
+    public static Reader openReader(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] sample = new byte[SAMPLE_SIZE];
+            int length = in.readNBytes(sample, 0, sample.length);
+
+            int bomLength = bomLength(sample, length);
+            Charset charset = detect(sample, length);
+
+            // Replay the sampled bytes (minus the BOM) ahead of the remaining stream
+            InputStream replay = new ByteArrayInputStream(sample, bomLength, length - bomLength);
+            return new InputStreamReader(new SequenceInputStream(replay, in), charset);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Detects the encoding of the given bytes.
+     *
+     * @param data The start of the file
+     * @param length The number of valid bytes in data
+     * @return The detected charset
+     */
+    public static Charset detect(byte[] data, int length) {
+        // Byte order marks are authoritative
+        if (length >= 3 && (data[0] & 0xFF) == 0xEF && (data[1] & 0xFF) == 0xBB && (data[2] & 0xFF) == 0xBF) {
+            return StandardCharsets.UTF_8;
+        }
+        if (length >= 2 && (data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xFE) {
+            return StandardCharsets.UTF_16LE;
+        }
+        if (length >= 2 && (data[0] & 0xFF) == 0xFE && (data[1] & 0xFF) == 0xFF) {
+            return StandardCharsets.UTF_16BE;
+        }
+
+        // UTF-16 without BOM: mostly-ASCII text leaves every other byte zero
+        int evenZeros = 0;
+        int oddZeros = 0;
+        for (int i = 0; i < length; i++) {
+            if (data[i] == 0) {
+                if ((i & 1) == 0) {
+                    evenZeros++;
+                } else {
+                    oddZeros++;
+                }
+            }
+        }
+        int pairs = length / 2;
+        if (pairs > 0 && oddZeros > pairs * 0.3 && evenZeros < pairs * 0.05) {
+            return StandardCharsets.UTF_16LE;
+        }
+        if (pairs > 0 && evenZeros > pairs * 0.3 && oddZeros < pairs * 0.05) {
+            return StandardCharsets.UTF_16BE;
+        }
+
+        return isValidUtf8(data, length) ? StandardCharsets.UTF_8 : LEGACY_CHARSET;
+    }
+
+    /**
+     * Returns the number of bytes taken by a byte order mark at the start of data.
+     */
+    private static int bomLength(byte[] data, int length) {
+        if (length >= 3 && (data[0] & 0xFF) == 0xEF && (data[1] & 0xFF) == 0xBB && (data[2] & 0xFF) == 0xBF) {
+            return 3;
+        }
+        if (length >= 2 && (((data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xFE)
+                || ((data[0] & 0xFF) == 0xFE && (data[1] & 0xFF) == 0xFF))) {
+            return 2;
+        }
+        return 0;
+    }
+
+    /**
+     * Checks whether the bytes form valid UTF-8.
+     * A multi-byte sequence cut off by the end of the sample is accepted.
+     */
+    private static boolean isValidUtf8(byte[] data, int length) {
+        int i = 0;
+        while (i < length) {
+            int b = data[i] & 0xFF;
+            int continuation;
+            if (b < 0x80) {
+                i++;
+                continue;
+            } else if (b >= 0xC2 && b <= 0xDF) {
+                continuation = 1;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                continuation = 2;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                continuation = 3;
+            } else {
+                return false;
+            }
+
+            for (int j = 1; j <= continuation; j++) {
+                if (i + j >= length) {
+                    return true; // Truncated by the sample boundary
+                }
+                if ((data[i + j] & 0xC0) != 0x80) {
+                    return false;
+                }
+            }
+            i += continuation + 1;
+        }
+        return true;
+    }
+
+    private static Charset legacyCharset() {
+        try {
+            return Charset.forName("windows-1252");
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.ISO_8859_1;
+        }
+    }
+}
@@ -1,5 +1,112 @@
 package com.clipphy.mediaplayer;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 public class CliphyAppLauncher {
-    public static void main(String[] args) {TAMediaPlayer.main(args);}
-} 
\ No newline at end of file
+
+    private static final Log LOG = Log.forClass(CliphyAppLauncher.class);
+
+    // Starts the player in a child JVM that uses an application class-data archive
+    private static final String CDS_OPTION = "--cds";
+
+    // Set by the java launcher for -m; the JVM ignores it as an option, so it is passed on as -m instead
+    private static final String MAIN_MODULE_PROPERTY = "jdk.module.main";
+
+    public static void main(String[] args) {
+        StartupTimer.mark(StartupTimer.JVM_UP);
+
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (arguments.remove(CDS_OPTION)) {
+            try {
+                System.exit(launchWithClassDataSharing(arguments));
+            } catch (IOException | InterruptedException e) {
+                LOG.warn("Could not start with class data sharing, starting normally: {}", e.getMessage());
+            }
+        }
+        TAMediaPlayer.main(arguments.toArray(new String[0]));
+    }
+
+    /**
+     * Runs the player in a child JVM with an archive of the JavaFX and application classes.
+     * The first run records the classes it loads into the archive when it exits; later runs
+     * map the archive instead of loading and verifying those classes again. The archive is
+     * named after the JDK, the class path and the module path, so an update of any of them
+     * starts a new one. The child gets the same JVM options, module path and main module
+     * as this JVM.
+     *
+     * @return The exit code of the child JVM
+     */
+    static int launchWithClassDataSharing(List<String> args) throws IOException, InterruptedException {
+        Path archive = classDataArchive();
+        Files.createDirectories(archive.getParent());
+
+        List<String> command = new ArrayList<>();
+        command.add(javaCommand());
+        if (Files.isRegularFile(archive)) {
+            command.add("-XX:SharedArchiveFile=" + archive);
+        } else {
+            LOG.info("Creating class data archive {}", archive.getFileName());
+            command.add("-XX:ArchiveClassesAtExit=" + archive);
+        }
+        command.add("-Xshare:auto");
+
+        // Heap size, properties, --module-path, --add-modules and so on, except the archive options set above
+        for (String option : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (!option.startsWith("-XX:SharedArchiveFile") && !option.startsWith("-XX:ArchiveClassesAtExit")
+                    && !option.startsWith("-Xshare") && !option.startsWith("-D" + MAIN_MODULE_PROPERTY + "=")) {
+                command.add(option);
+            }
+        }
+
+        String classPath = System.getProperty("java.class.path");
+        if (classPath != null && !classPath.isEmpty()) {
+            command.add("-cp");
+            command.add(classPath);
+        }
+        String mainModule = System.getProperty(MAIN_MODULE_PROPERTY);
+        if (mainModule != null) {
+            command.add("-m");
+            command.add(mainModule + "/" + CliphyAppLauncher.class.getName());
+        } else {
+            command.add(CliphyAppLauncher.class.getName());
+        }
+        command.addAll(args);
+        LOG.debug("Starting {}", command);
+
+        Process process = new ProcessBuilder(command).inheritIO().start();
+        return process.waitFor();
+    }
+
+    /**
+     * Returns where the class data archive for this JDK, class path and module path is kept.
+     */
+    static Path classDataArchive() {
+        StringBuilder key = new StringBuilder(System.getProperty("java.home"))
+                .append('|').append(System.getProperty("java.vm.version"));
+        String paths = System.getProperty("java.class.path", "") + File.pathSeparator
+                + System.getProperty("jdk.module.path", "");
+        for (String entry : paths.split(File.pathSeparator)) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+            File file = new File(entry);
+            key.append('|').append(file.getAbsolutePath()).append('@').append(file.lastModified());
+        }
+        return AppData.resolve("cds").resolve(String.format("app-%08x.jsa", key.toString().hashCode()));
+    }
+
+    /**
+     * Returns the java executable running this JVM.
+     */
+    static String javaCommand() {
+        return ProcessHandle.current().info().command()
+                .orElse(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    }
+}
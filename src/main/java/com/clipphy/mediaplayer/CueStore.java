@@ -0,0 +1,163 @@
+package com.clipphy.mediaplayer;
+
+import java.util.Arrays;
+
+/**
+ * Compact column-oriented storage for subtitle cues.
+ * Start and end times live in parallel long arrays and all cue text is packed
+ * into one shared char buffer, so a cue costs a few array slots instead of
+ * several objects. Strings are only created for the cue being displayed.
+ */
+public class CueStore {
+
+    private long[] starts;
+    private long[] ends;
+    private int[] textOffsets;
+    private int[] textLengths;
+    private char[] text;
+    private int size = 0;
+    private int textSize = 0;
+    private boolean sorted = true;
+
+    public CueStore() {
+        this(64);
+    }
+
+    public CueStore(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        starts = new long[capacity];
+        ends = new long[capacity];
+        textOffsets = new int[capacity];
+        textLengths = new int[capacity];
+        text = new char[capacity * 32];
+    }
+
+    /**
+     * Appends a cue, copying its text into the shared buffer.
+     */
+    public void add(long startMillis, long endMillis, CharSequence cueText) {
+        ensureCapacity(size + 1);
+        ensureTextCapacity(textSize + cueText.length());
+
+        if (size > 0 && startMillis < starts[size - 1]) {
+            sorted = false;
+        }
+
+        starts[size] = startMillis;
+        ends[size] = endMillis;
+        textOffsets[size] = textSize;
+        textLengths[size] = cueText.length();
+        for (int i = 0; i < cueText.length(); i++) {
+            text[textSize++] = cueText.charAt(i);
+        }
+        size++;
+    }
+
+    /**
+     * Appends all cues of another store.
+     */
+    public void addAll(CueStore other) {
+        ensureCapacity(size + other.size);
+        ensureTextCapacity(textSize + other.textSize);
+
+        if (other.size > 0 && (!other.sorted || (size > 0 && other.starts[0] < starts[size - 1]))) {
+            sorted = false;
+        }
+
+        System.arraycopy(other.starts, 0, starts, size, other.size);
+        System.arraycopy(other.ends, 0, ends, size, other.size);
+        System.arraycopy(other.textLengths, 0, textLengths, size, other.size);
+        for (int i = 0; i < other.size; i++) {
+            textOffsets[size + i] = other.textOffsets[i] + textSize;
+        }
+        System.arraycopy(other.text, 0, text, textSize, other.textSize);
+
+        size += other.size;
+        textSize += other.textSize;
+    }
+
+    /**
+     * Orders the cues by start time, keeping file order for equal starts.
+     * Does nothing if cues were added in order, which is the common case.
+     */
+    public void sortByStart() {
+        if (sorted) {
+            return;
+        }
+
+        // Sort (start, index) pairs packed into longs, then permute the columns
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            long start = Math.max(0, Math.min(starts[i], Integer.MAX_VALUE));
+            keys[i] = (start << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        long[] newStarts = new long[starts.length];
+        long[] newEnds = new long[ends.length];
+        int[] newOffsets = new int[textOffsets.length];
+        int[] newLengths = new int[textLengths.length];
+        for (int i = 0; i < size; i++) {
+            int from = (int) keys[i];
+            newStarts[i] = starts[from];
+            newEnds[i] = ends[from];
+            newOffsets[i] = textOffsets[from];
+            newLengths[i] = textLengths[from];
+        }
+
+        starts = newStarts;
+        ends = newEnds;
+        textOffsets = newOffsets;
+        textLengths = newLengths;
+        sorted = true;
+    }
+
+    public void clear() {
+        size = 0;
+        textSize = 0;
+        sorted = true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isSorted() {
+        return sorted;
+    }
+
+    public long getStart(int index) {
+        return starts[index];
+    }
+
+    public long getEnd(int index) {
+        return ends[index];
+    }
+
+    /**
+     * Creates a string for the text of one cue.
+     */
+    public String getText(int index) {
+        return new String(text, textOffsets[index], textLengths[index]);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > starts.length) {
+            int newCapacity = Math.max(capacity, starts.length * 2);
+            starts = Arrays.copyOf(starts, newCapacity);
+            ends = Arrays.copyOf(ends, newCapacity);
+            textOffsets = Arrays.copyOf(textOffsets, newCapacity);
+            textLengths = Arrays.copyOf(textLengths, newCapacity);
+        }
+    }
+
+    private void ensureTextCapacity(int capacity) {
+        if (capacity > text.length) {
+            text = Arrays.copyOf(text, Math.max(capacity, text.length * 2));
+        }
+    }
+}
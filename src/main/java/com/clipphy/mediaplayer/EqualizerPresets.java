@@ -0,0 +1,54 @@
+package com.clipphy.mediaplayer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.scene.media.AudioEqualizer;
+import javafx.scene.media.EqualizerBand;
+
+/**
+ * Named gain settings for the ten bands of the player's audio equalizer
+ * (32 Hz to 16 kHz, one octave apart), in decibels.
+ */
+public final class EqualizerPresets {
+
+    public static final String FLAT = "Flat";
+
+    private static final Map<String, double[]> PRESETS = new LinkedHashMap<>();
+
+    static {
+        PRESETS.put(FLAT, new double[] {0, 0, 0, 0, 0, 0, 0, 0, 0, 0});
+        PRESETS.put("Bass Boost", new double[] {6, 5, 4, 2, 0, 0, 0, 0, 0, 0});
+        PRESETS.put("Treble Boost", new double[] {0, 0, 0, 0, 0, 1, 2, 4, 5, 6});
+        PRESETS.put("Vocal", new double[] {-2, -2, -1, 1, 3, 4, 3, 1, 0, -1});
+        PRESETS.put("Rock", new double[] {5, 4, 2, -1, -2, -1, 2, 3, 4, 4});
+        PRESETS.put("Pop", new double[] {-1, 1, 3, 4, 3, 0, -1, -1, 0, 1});
+        PRESETS.put("Jazz", new double[] {3, 2, 1, 2, -1, -1, 0, 1, 2, 3});
+        PRESETS.put("Classical", new double[] {4, 3, 2, 1, -1, -1, 0, 2, 3, 4});
+    }
+
+    private EqualizerPresets() {
+    }
+
+    /**
+     * Returns the preset names in display order.
+     */
+    public static List<String> names() {
+        return new ArrayList<>(PRESETS.keySet());
+    }
+
+    /**
+     * Sets the gains of a preset on an equalizer. Unknown names fall back to flat.
+     */
+    public static void apply(String name, AudioEqualizer equalizer) {
+        double[] gains = PRESETS.getOrDefault(name, PRESETS.get(FLAT));
+        List<EqualizerBand> bands = equalizer.getBands();
+        for (int i = 0; i < bands.size(); i++) {
+            double gain = i < gains.length ? gains[i] : 0;
+            bands.get(i).setGain(Math.max(EqualizerBand.MIN_GAIN, Math.min(EqualizerBand.MAX_GAIN, gain)));
+        }
+        equalizer.setEnabled(!FLAT.equals(name));
+    }
+}
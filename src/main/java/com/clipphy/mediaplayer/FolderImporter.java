@@ -0,0 +1,265 @@
+package com.clipphy.mediaplayer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.util.Duration;
+
+/**
+ * Imports dropped or chosen files, playlist files and whole folder trees without blocking the UI.
+ * Directories are walked in parallel on a fork/join pool and matching files are
+ * collected into a queue that the FX thread drains at a fixed interval, so the
+ * playlist receives a few large batches instead of one update per file.
+ * Every import carries the generation it was started in; cancelling moves to a
+ * new generation, so work left over from a cancelled import is discarded while
+ * imports started afterwards go through.
+ */
+public class FolderImporter {
+
+    private static final Log LOG = Log.forClass(FolderImporter.class);
+
+    /**
+     * Receives import results. All methods are called on the FX thread.
+     */
+    public interface Listener {
+        void onBatch(List<File> files);
+
+        void onProgress(int filesFound, int foldersScanned);
+
+        void onFinished(int filesFound, boolean cancelled);
+    }
+
+    // How often found files are handed to the UI
+    private static final Duration BATCH_INTERVAL = Duration.millis(200);
+
+    // Playlist entries are queued in groups of this size while the file is read
+    private static final int PLAYLIST_GROUP_SIZE = 512;
+
+    private final Predicate<File> filter;
+    private final Listener listener;
+    private final ForkJoinPool pool = new ForkJoinPool(Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors())));
+    private final ConcurrentLinkedQueue<Found> found = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger activeImports = new AtomicInteger();
+    private final AtomicInteger filesFound = new AtomicInteger();
+    private final AtomicInteger foldersScanned = new AtomicInteger();
+    private final AtomicInteger generation = new AtomicInteger();
+    private int latestImportGeneration = -1;
+    private final Timeline drainTimeline;
+
+    /**
+     * @param filter Decides which files are imported
+     * @param listener Receives batches, progress and completion on the FX thread
+     */
+    public FolderImporter(Predicate<File> filter, Listener listener) {
+        this.filter = filter;
+        this.listener = listener;
+        drainTimeline = new Timeline(new KeyFrame(BATCH_INTERVAL, e -> drain()));
+        drainTimeline.setCycleCount(Timeline.INDEFINITE);
+    }
+
+    /**
+     * Starts importing the given files and folders. Must be called on the FX thread.
+     * Files are checked against the filter; folders are searched recursively.
+     */
+    public void importFiles(List<File> roots) {
+        int importGeneration = generation.get();
+        if ((activeImports.get() == 0 && found.isEmpty()) || latestImportGeneration != importGeneration) {
+            // Fresh import, or the first one after a cancel: count progress from zero
+            filesFound.set(0);
+            foldersScanned.set(0);
+        }
+        latestImportGeneration = importGeneration;
+
+        List<File> rootList = new ArrayList<>(roots);
+        activeImports.incrementAndGet();
+        pool.execute(() -> {
+            try {
+                // Loose files keep their given order and come first, then playlist entries
+                List<File> files = new ArrayList<>();
+                List<File> playlists = new ArrayList<>();
+                List<File> folders = new ArrayList<>();
+                for (File root : rootList) {
+                    if (root.isDirectory()) {
+                        folders.add(root);
+                    } else if (PlaylistIO.isPlaylistFile(root)) {
+                        playlists.add(root);
+                    } else {
+                        files.add(root);
+                    }
+                }
+                enqueue(importGeneration, files);
+
+                for (File playlistFile : playlists) {
+                    if (isSuperseded(importGeneration)) {
+                        break;
+                    }
+                    readPlaylist(importGeneration, playlistFile);
+                }
+
+                for (File folder : folders) {
+                    if (isSuperseded(importGeneration)) {
+                        break;
+                    }
+                    new ScanFolder(importGeneration, folder.toPath()).invoke();
+                }
+            } finally {
+                activeImports.decrementAndGet();
+            }
+        });
+
+        drainTimeline.play();
+    }
+
+    /**
+     * Stops the running imports. Files already handed to the UI stay in the playlist.
+     * Must be called on the FX thread.
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+        found.clear();
+    }
+
+    public boolean isRunning() {
+        return activeImports.get() > 0 || !found.isEmpty();
+    }
+
+    /**
+     * Runs on the FX thread: hands everything found so far to the listener as one batch.
+     */
+    private void drain() {
+        List<File> batch = new ArrayList<>();
+        Found group;
+        while ((group = found.poll()) != null) {
+            // Groups queued just as their import was cancelled
+            if (!isSuperseded(group.generation)) {
+                batch.addAll(group.files);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            listener.onBatch(batch);
+        }
+        listener.onProgress(filesFound.get(), foldersScanned.get());
+
+        if (activeImports.get() == 0 && found.isEmpty()) {
+            drainTimeline.stop();
+            listener.onFinished(filesFound.get(), isSuperseded(latestImportGeneration));
+        }
+    }
+
+    /**
+     * Streams the entries of a playlist file into the queue in groups, skipping entries that no longer exist.
+     */
+    private void readPlaylist(int importGeneration, File playlistFile) {
+        List<File> group = new ArrayList<>(PLAYLIST_GROUP_SIZE);
+        try {
+            PlaylistIO.read(playlistFile, file -> {
+                if (isSuperseded(importGeneration) || !file.isFile()) {
+                    return;
+                }
+                group.add(file);
+                if (group.size() == PLAYLIST_GROUP_SIZE) {
+                    enqueue(importGeneration, group);
+                    group.clear();
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Could not read playlist {}: {}", playlistFile, e.getMessage());
+        }
+        enqueue(importGeneration, group);
+    }
+
+    private boolean isSuperseded(int importGeneration) {
+        return importGeneration != generation.get();
+    }
+
+    private void enqueue(int importGeneration, List<File> candidates) {
+        List<File> accepted = new ArrayList<>();
+        for (File file : candidates) {
+            if (filter.test(file)) {
+                accepted.add(file);
+            }
+        }
+        if (!accepted.isEmpty() && !isSuperseded(importGeneration)) {
+            filesFound.addAndGet(accepted.size());
+            found.add(new Found(importGeneration, accepted));
+        }
+    }
+
+    /**
+     * Scans one folder, forking a subtask for each subfolder.
+     * Files of a folder are queued together, sorted by name.
+     */
+    private class ScanFolder extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int importGeneration;
+        private final transient Path folder;
+
+        ScanFolder(int importGeneration, Path folder) {
+            this.importGeneration = importGeneration;
+            this.folder = folder;
+        }
+
+        @Override
+        protected void compute() {
+            if (isSuperseded(importGeneration)) {
+                return;
+            }
+
+            List<File> files = new ArrayList<>();
+            List<ScanFolder> subfolders = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(folder)) {
+                for (Path entry : entries) {
+                    if (entry.getFileName().toString().startsWith(".")) {
+                        continue; // Skip hidden files and folders
+                    }
+                    // Do not follow links, so a link loop cannot make the walk endless
+                    if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        subfolders.add(new ScanFolder(importGeneration, entry));
+                    } else {
+                        files.add(entry.toFile());
+                    }
+                }
+            } catch (IOException | SecurityException e) {
+                LOG.warn("Could not read folder {}: {}", folder, e.getMessage());
+            }
+
+            if (!isSuperseded(importGeneration)) {
+                foldersScanned.incrementAndGet();
+            }
+            files.sort(Comparator.comparing(File::getName, String.CASE_INSENSITIVE_ORDER));
+            enqueue(importGeneration, files);
+
+            subfolders.sort(Comparator.comparing(task -> task.folder.getFileName().toString(), String.CASE_INSENSITIVE_ORDER));
+            invokeAll(subfolders);
+        }
+    }
+
+    /**
+     * Files found by one import, tagged with the generation it was started in.
+     */
+    private static final class Found {
+        final int generation;
+        final List<File> files;
+
+        Found(int generation, List<File> files) {
+            this.generation = generation;
+            this.files = files;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.clipphy.mediaplayer;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javafx.application.Platform;
+
+/**
+ * Watches the FX application thread for stalls. A background thread posts a
+ * heartbeat to the FX thread every few milliseconds; when a heartbeat waits
+ * longer than the threshold, the FX thread's stack is captured along with the
+ * operation it was running. Once the heartbeat gets through, the stall is
+ * written to a rolling log in the data folder and kept in memory.
+ * The threshold can be changed with -Dtamediaplayer.stallThresholdMillis.
+ */
+public final class FxWatchdog {
+
+    private static final Log LOG = Log.forClass(FxWatchdog.class);
+
+    private static final long HEARTBEAT_MILLIS = 50;
+    private static final long THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            Long.getLong("tamediaplayer.stallThresholdMillis", 250));
+
+    // The log is moved to stalls.log.1 once it grows past this size
+    private static final Path LOG_FILE = AppData.resolve("stalls.log");
+    private static final long MAX_LOG_BYTES = 512 * 1024;
+
+    private static final int MAX_RECENT_STALLS = 32;
+    private static final int MAX_LOGGED_FRAMES = 40;
+
+    private static final Deque<Stall> recentStalls = new ArrayDeque<>();
+
+    private static final MetricsRegistry.Counter stallCount = MetricsRegistry.getDefault().counter("fx.stalls");
+    private static final LatencyHistogram stallDurations = MetricsRegistry.getDefault().histogram("fx.stall");
+
+    private static volatile String currentOperation;
+
+    private static Thread fxThread;
+    private static Thread watchdogThread;
+
+    // Heartbeat state, posted by the watchdog thread and answered on the FX thread
+    private static volatile boolean beatPending;
+    private static volatile long beatPostedNanos;
+    private static volatile long beatAnsweredNanos;
+    private static final Runnable BEAT = () -> {
+        beatAnsweredNanos = System.nanoTime();
+        beatPending = false;
+    };
+
+    private FxWatchdog() {
+    }
+
+    /**
+     * Starts watching the calling thread, which must be the FX application thread. Safe to call more than once.
+     */
+    public static synchronized void start() {
+        if (watchdogThread != null) {
+            return;
+        }
+        fxThread = Thread.currentThread();
+        watchdogThread = new Thread(FxWatchdog::watch, "fx-watchdog");
+        watchdogThread.setDaemon(true);
+        watchdogThread.start();
+    }
+
+    /**
+     * Runs work on the calling FX thread under a name, so a stall inside it is
+     * reported under that name. Calls may be nested; the outer name applies again
+     * once the inner work returns:
+     *
+     * <pre>FxWatchdog.run("Indexing cues", () -> ...);</pre>
+     */
+    public static void run(String operation, Runnable work) {
+        String previous = currentOperation;
+        currentOperation = operation;
+        try {
+            work.run();
+        } finally {
+            currentOperation = previous;
+        }
+    }
+
+    /**
+     * Like {@link #run}, for work that returns a result or throws a checked exception:
+     *
+     * <pre>MediaPlayer player = FxWatchdog.call("Opening media", () -> new MediaPlayer(media));</pre>
+     */
+    public static <T, E extends Exception> T call(String operation, Work<T, E> work) throws E {
+        String previous = currentOperation;
+        currentOperation = operation;
+        try {
+            return work.call();
+        } finally {
+            currentOperation = previous;
+        }
+    }
+
+    /**
+     * Returns the most recent stalls, oldest first.
+     */
+    public static List<Stall> getRecentStalls() {
+        synchronized (recentStalls) {
+            return new ArrayList<>(recentStalls);
+        }
+    }
+
+    private static void watch() {
+        Stall stall = null;
+        try {
+            while (true) {
+                Thread.sleep(HEARTBEAT_MILLIS);
+
+                if (beatPending) {
+                    // Capture the stack once, while the FX thread is still inside the blocking call
+                    if (stall == null && System.nanoTime() - beatPostedNanos > THRESHOLD_NANOS) {
+                        stall = capture();
+                        LOG.warn("FX thread stalled in {}", stall.getOperation());
+                    }
+                    continue;
+                }
+
+                if (stall != null) {
+                    finish(stall, beatAnsweredNanos - beatPostedNanos);
+                    stall = null;
+                }
+
+                beatPending = true;
+                beatPostedNanos = System.nanoTime();
+                Platform.runLater(BEAT);
+            }
+        } catch (InterruptedException | IllegalStateException e) {
+            // Interrupted, or the FX toolkit has exited; nothing left to watch
+        }
+    }
+
+    private static Stall capture() {
+        StackTraceElement[] stack = fxThread.getStackTrace();
+        String operation = currentOperation;
+        if (operation == null) {
+            operation = firstPlayerFrame(stack);
+        }
+        long blockedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - beatPostedNanos);
+        return new Stall(Instant.now().minusMillis(blockedMillis), operation, stack);
+    }
+
+    /**
+     * Names an untracked stall after the innermost player method on the stack.
+     */
+    private static String firstPlayerFrame(StackTraceElement[] stack) {
+        String packagePrefix = FxWatchdog.class.getPackageName() + ".";
+        for (StackTraceElement frame : stack) {
+            if (frame.getClassName().startsWith(packagePrefix)) {
+                String className = frame.getClassName().substring(packagePrefix.length());
+                return className + "." + frame.getMethodName() + ":" + frame.getLineNumber();
+            }
+        }
+        return "unknown operation";
+    }
+
+    private static void finish(Stall stall, long durationNanos) {
+        stall.durationMillis = TimeUnit.NANOSECONDS.toMillis(durationNanos);
+        stallCount.increment();
+        stallDurations.recordNanos(durationNanos);
+
+        synchronized (recentStalls) {
+            if (recentStalls.size() == MAX_RECENT_STALLS) {
+                recentStalls.removeFirst();
+            }
+            recentStalls.addLast(stall);
+        }
+
+        LOG.warn("FX thread was blocked for {} ms in {}", stall.durationMillis, stall.getOperation());
+        appendToLog(stall);
+    }
+
+    private static void appendToLog(Stall stall) {
+        try {
+            Files.createDirectories(LOG_FILE.getParent());
+            if (Files.isRegularFile(LOG_FILE) && Files.size(LOG_FILE) > MAX_LOG_BYTES) {
+                Files.move(LOG_FILE, LOG_FILE.resolveSibling(LOG_FILE.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+            }
+            try (Writer writer = Files.newBufferedWriter(LOG_FILE, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(stall.toString());
+            }
+        } catch (IOException e) {
+            LOG.warn("Could not write the stall log: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Work passed to {@link #call}.
+     */
+    @FunctionalInterface
+    public interface Work<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    /**
+     * One stall of the FX thread: when it started, what was running and where it was blocked.
+     */
+    public static final class Stall {
+
+        private final Instant startedAt;
+        private final String operation;
+        private final StackTraceElement[] stack;
+        private volatile long durationMillis;
+
+        private Stall(Instant startedAt, String operation, StackTraceElement[] stack) {
+            this.startedAt = startedAt;
+            this.operation = operation;
+            this.stack = stack;
+        }
+
+        public Instant getStartedAt() {
+            return startedAt;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public StackTraceElement[] getStack() {
+            return stack.clone();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder entry = new StringBuilder(256);
+            entry.append(startedAt).append(" blocked ").append(durationMillis).append(" ms in ")
+                    .append(operation).append(System.lineSeparator());
+            int frames = Math.min(stack.length, MAX_LOGGED_FRAMES);
+            for (int i = 0; i < frames; i++) {
+                entry.append("\tat ").append(stack[i]).append(System.lineSeparator());
+            }
+            if (stack.length > frames) {
+                entry.append("\t... ").append(stack.length - frames).append(" more").append(System.lineSeparator());
+            }
+            return entry.toString();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.clipphy.mediaplayer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size latency histogram in microseconds, laid out like an HDR histogram:
+ * every power of two is split into 32 linear buckets, so any recorded value is
+ * kept to within about 3% from one microsecond up to days. Recording is a few
+ * shifts and one atomic increment, with no allocation, and is safe from any thread.
+ */
+public class LatencyHistogram {
+
+    // Linear buckets per power of two; values below 2 * SUB_BUCKETS get one bucket each
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // Longer values are counted as this, about 12 days
+    private static final long MAX_MICROS = (1L << 40) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(indexFor(MAX_MICROS) + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        record(nanos / 1000);
+    }
+
+    public void record(long micros) {
+        long value = Math.max(0, Math.min(MAX_MICROS, micros));
+        counts.incrementAndGet(indexFor(value));
+        count.increment();
+        sum.add(value);
+        long previous;
+        while (value > (previous = max.get()) && !max.compareAndSet(previous, value)) {
+            // Lost a race with a larger value, try again
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMaxMicros() {
+        return max.get();
+    }
+
+    public long getMeanMicros() {
+        long total = count.sum();
+        return total == 0 ? 0 : sum.sum() / total;
+    }
+
+    /**
+     * Returns the value at a percentile, as the highest value of its bucket.
+     *
+     * @param percentile From 0 to 100
+     */
+    public long getPercentileMicros(double percentile) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueAt(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    private static int indexFor(long value) {
+        // Values below 2 * SUB_BUCKETS map to themselves; above, keep the top SUB_BUCKET_BITS + 1 bits
+        int magnitude = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return magnitude * SUB_BUCKETS + (int) (value >>> magnitude);
+    }
+
+    private static long highestValueAt(int index) {
+        int magnitude = Math.max(0, index / SUB_BUCKETS - 1);
+        long lowest = (long) (index - magnitude * SUB_BUCKETS) << magnitude;
+        return lowest + (1L << magnitude) - 1;
+    }
+}
@@ -0,0 +1,341 @@
+package com.clipphy.mediaplayer;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Leveled logging that keeps console and file I/O off the calling thread.
+ * Calls put the message pattern and its arguments into a lock-free ring buffer;
+ * a background writer formats them and writes them to the console and to a
+ * rotating log in the data folder. Patterns use {} for each argument, and a
+ * Throwable passed after the last used argument is printed with its stack trace.
+ * Arguments are formatted later on the writer thread, so pass values that do not
+ * change, or use the Supplier overloads to build the message on the spot.
+ * <p>
+ * The level is fixed at startup with -Dtamediaplayer.logLevel (DEBUG, INFO, WARN
+ * or ERROR, INFO by default). A call below it returns after one constant check,
+ * without allocating or formatting anything.
+ */
+public final class Log {
+
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    private static final Level LEVEL = parseLevel(System.getProperty("tamediaplayer.logLevel"));
+
+    // Constants, so the JIT can drop disabled calls entirely
+    private static final boolean DEBUG_ENABLED = LEVEL.compareTo(Level.DEBUG) <= 0;
+    private static final boolean INFO_ENABLED = LEVEL.compareTo(Level.INFO) <= 0;
+    private static final boolean WARN_ENABLED = LEVEL.compareTo(Level.WARN) <= 0;
+
+    private static final int BUFFER_CAPACITY = 8192;
+    private static final long WRITE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long SHUTDOWN_WAIT_MILLIS = 1000;
+
+    // How long an error waits for room in a full buffer before it is dropped too
+    private static final int ERROR_RETRIES = 50;
+    private static final long ERROR_RETRY_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private static final long MAX_FILE_BYTES = 1024 * 1024;
+    private static final int KEPT_FILES = 3;
+
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS", Locale.ROOT).withZone(ZoneId.systemDefault());
+
+    private static final LogRingBuffer buffer = new LogRingBuffer(BUFFER_CAPACITY);
+    private static final RotatingLogFile file = new RotatingLogFile(AppData.resolve("logs").resolve("player.log"),
+            MAX_FILE_BYTES, KEPT_FILES);
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final Thread writer = new Thread(Log::writeLoop, "log-writer");
+    private static volatile boolean closing;
+
+    static {
+        writer.setDaemon(true);
+        writer.start();
+
+        // Write out whatever is still buffered when the player exits
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            closing = true;
+            LockSupport.unpark(writer);
+            try {
+                writer.join(SHUTDOWN_WAIT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "log-shutdown"));
+    }
+
+    private final String source;
+
+    private Log(String source) {
+        this.source = source;
+    }
+
+    /**
+     * Returns a logger whose lines are tagged with the simple name of a class.
+     */
+    public static Log forClass(Class<?> type) {
+        return new Log(type.getSimpleName());
+    }
+
+    public boolean isDebugEnabled() {
+        return DEBUG_ENABLED;
+    }
+
+    public void debug(String message) {
+        if (DEBUG_ENABLED) {
+            enqueue(Level.DEBUG, message, 0, null, null, null);
+        }
+    }
+
+    public void debug(String pattern, Object arg) {
+        if (DEBUG_ENABLED) {
+            enqueue(Level.DEBUG, pattern, 1, arg, null, null);
+        }
+    }
+
+    public void debug(String pattern, Object arg1, Object arg2) {
+        if (DEBUG_ENABLED) {
+            enqueue(Level.DEBUG, pattern, 2, arg1, arg2, null);
+        }
+    }
+
+    public void debug(String pattern, Object arg1, Object arg2, Object arg3) {
+        if (DEBUG_ENABLED) {
+            enqueue(Level.DEBUG, pattern, 3, arg1, arg2, arg3);
+        }
+    }
+
+    public void debug(Supplier<String> message) {
+        if (DEBUG_ENABLED) {
+            enqueue(Level.DEBUG, message.get(), 0, null, null, null);
+        }
+    }
+
+    public void info(String message) {
+        if (INFO_ENABLED) {
+            enqueue(Level.INFO, message, 0, null, null, null);
+        }
+    }
+
+    public void info(String pattern, Object arg) {
+        if (INFO_ENABLED) {
+            enqueue(Level.INFO, pattern, 1, arg, null, null);
+        }
+    }
+
+    public void info(String pattern, Object arg1, Object arg2) {
+        if (INFO_ENABLED) {
+            enqueue(Level.INFO, pattern, 2, arg1, arg2, null);
+        }
+    }
+
+    public void info(String pattern, Object arg1, Object arg2, Object arg3) {
+        if (INFO_ENABLED) {
+            enqueue(Level.INFO, pattern, 3, arg1, arg2, arg3);
+        }
+    }
+
+    public void info(Supplier<String> message) {
+        if (INFO_ENABLED) {
+            enqueue(Level.INFO, message.get(), 0, null, null, null);
+        }
+    }
+
+    public void warn(String message) {
+        if (WARN_ENABLED) {
+            enqueue(Level.WARN, message, 0, null, null, null);
+        }
+    }
+
+    public void warn(String pattern, Object arg) {
+        if (WARN_ENABLED) {
+            enqueue(Level.WARN, pattern, 1, arg, null, null);
+        }
+    }
+
+    public void warn(String pattern, Object arg1, Object arg2) {
+        if (WARN_ENABLED) {
+            enqueue(Level.WARN, pattern, 2, arg1, arg2, null);
+        }
+    }
+
+    public void warn(String pattern, Object arg1, Object arg2, Object arg3) {
+        if (WARN_ENABLED) {
+            enqueue(Level.WARN, pattern, 3, arg1, arg2, arg3);
+        }
+    }
+
+    public void warn(Supplier<String> message) {
+        if (WARN_ENABLED) {
+            enqueue(Level.WARN, message.get(), 0, null, null, null);
+        }
+    }
+
+    // Errors are always logged
+
+    public void error(String message) {
+        enqueue(Level.ERROR, message, 0, null, null, null);
+    }
+
+    public void error(String pattern, Object arg) {
+        enqueue(Level.ERROR, pattern, 1, arg, null, null);
+    }
+
+    public void error(String pattern, Object arg1, Object arg2) {
+        enqueue(Level.ERROR, pattern, 2, arg1, arg2, null);
+    }
+
+    public void error(String pattern, Object arg1, Object arg2, Object arg3) {
+        enqueue(Level.ERROR, pattern, 3, arg1, arg2, arg3);
+    }
+
+    public void error(Supplier<String> message) {
+        enqueue(Level.ERROR, message.get(), 0, null, null, null);
+    }
+
+    private void enqueue(Level level, String pattern, int argCount, Object arg1, Object arg2, Object arg3) {
+        boolean added = buffer.offer(level, source, pattern, argCount, arg1, arg2, arg3);
+
+        // Other levels are dropped when the writer falls behind, errors give it a moment to catch up
+        for (int retry = 0; !added && level == Level.ERROR && retry < ERROR_RETRIES; retry++) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(ERROR_RETRY_NANOS);
+            added = buffer.offer(level, source, pattern, argCount, arg1, arg2, arg3);
+        }
+
+        if (!added) {
+            dropped.incrementAndGet();
+        } else if (level.compareTo(Level.WARN) >= 0) {
+            // Problems are written right away rather than on the next round
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private static Level parseLevel(String name) {
+        if (name != null) {
+            try {
+                return Level.valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Unknown log level " + name + ", using INFO");
+            }
+        }
+        return Level.INFO;
+    }
+
+    /**
+     * Runs on the writer thread: drains the buffer, then sleeps until the next round or a warning.
+     */
+    private static void writeLoop() {
+        LogRingBuffer.LogRecord record = new LogRingBuffer.LogRecord();
+        StringBuilder line = new StringBuilder(256);
+        boolean fileFailed = false;
+
+        while (true) {
+            // Read the flag first so records offered before shutdown are still drained
+            boolean last = closing;
+            boolean wrote = false;
+            while (buffer.poll(record)) {
+                line.setLength(0);
+                format(record, line);
+                fileFailed = write(line, fileFailed);
+                wrote = true;
+            }
+
+            long lost = dropped.getAndSet(0);
+            if (lost > 0) {
+                line.setLength(0);
+                line.append(TIME_FORMAT.format(Instant.now())).append(" WARN  [log-writer] Log: ")
+                        .append(lost).append(" messages dropped, logging faster than they could be written")
+                        .append(System.lineSeparator());
+                fileFailed = write(line, fileFailed);
+                wrote = true;
+            }
+
+            if (wrote) {
+                System.out.flush();
+                try {
+                    file.flush();
+                } catch (IOException e) {
+                    fileFailed = true;
+                }
+            }
+
+            if (last) {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    // Exiting anyway
+                }
+                return;
+            }
+            LockSupport.parkNanos(WRITE_INTERVAL_NANOS);
+        }
+    }
+
+    /**
+     * Writes one line to both sinks. Stops using the file after the first failure.
+     *
+     * @return Whether the file has failed
+     */
+    private static boolean write(StringBuilder line, boolean fileFailed) {
+        System.out.append(line);
+        if (!fileFailed) {
+            try {
+                file.write(line);
+            } catch (IOException e) {
+                System.err.println("Could not write the log file, logging to the console only: " + e.getMessage());
+                return true;
+            }
+        }
+        return fileFailed;
+    }
+
+    private static void format(LogRingBuffer.LogRecord record, StringBuilder line) {
+        line.append(TIME_FORMAT.format(Instant.ofEpochMilli(record.timeMillis))).append(' ');
+        String level = record.level.name();
+        line.append(level);
+        for (int i = level.length(); i < 6; i++) {
+            line.append(' ');
+        }
+        line.append('[').append(record.thread).append("] ").append(record.source).append(": ");
+
+        // Substitute the arguments for the placeholders in order
+        String pattern = record.message;
+        int used = 0;
+        int start = 0;
+        if (pattern != null) {
+            int placeholder;
+            while (used < record.argCount && (placeholder = pattern.indexOf("{}", start)) >= 0) {
+                line.append(pattern, start, placeholder).append(record.args[used++]);
+                start = placeholder + 2;
+            }
+            line.append(pattern, start, pattern.length());
+        } else {
+            line.append("null");
+        }
+        line.append(System.lineSeparator());
+
+        // An argument left over after the placeholders is printed as a stack trace if it is one
+        for (int i = used; i < record.argCount; i++) {
+            if (record.args[i] instanceof Throwable) {
+                StringWriter trace = new StringWriter();
+                ((Throwable) record.args[i]).printStackTrace(new PrintWriter(trace));
+                line.append(trace);
+                break;
+            }
+        }
+        Arrays.fill(record.args, null);
+    }
+}
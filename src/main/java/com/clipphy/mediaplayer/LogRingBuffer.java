@@ -0,0 +1,132 @@
+package com.clipphy.mediaplayer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded queue of log records for any number of producers and one consumer,
+ * without locks. Each slot carries a sequence number: producers claim a
+ * position with one compare-and-set on the tail and publish the slot by
+ * advancing its sequence, the consumer frees it by moving the sequence one
+ * lap ahead. Records are kept in parallel arrays, so logging allocates nothing.
+ * When the buffer is full, offering fails at once instead of making the caller wait.
+ */
+class LogRingBuffer {
+
+    static final int MAX_ARGS = 3;
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    private final long[] times;
+    private final Log.Level[] levels;
+    private final String[] threads;
+    private final String[] sources;
+    private final String[] messages;
+    private final int[] argCounts;
+    private final Object[] args;
+
+    /**
+     * @param capacity Number of slots, a power of two
+     */
+    LogRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        mask = capacity - 1;
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        times = new long[capacity];
+        levels = new Log.Level[capacity];
+        threads = new String[capacity];
+        sources = new String[capacity];
+        messages = new String[capacity];
+        argCounts = new int[capacity];
+        args = new Object[capacity * MAX_ARGS];
+    }
+
+    /**
+     * Adds a record from any thread.
+     *
+     * @return False if the buffer was full
+     */
+    boolean offer(Log.Level level, String source, String message, int argCount, Object arg1, Object arg2, Object arg3) {
+        long position;
+        int slot;
+        while (true) {
+            position = tail.get();
+            slot = (int) (position & mask);
+            long lag = sequences.get(slot) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (lag < 0) {
+                // The consumer has not freed this slot from the previous lap yet
+                return false;
+            }
+            // Otherwise another producer claimed the position first, try the next one
+        }
+
+        times[slot] = System.currentTimeMillis();
+        levels[slot] = level;
+        threads[slot] = Thread.currentThread().getName();
+        sources[slot] = source;
+        messages[slot] = message;
+        argCounts[slot] = argCount;
+        int first = slot * MAX_ARGS;
+        args[first] = arg1;
+        args[first + 1] = arg2;
+        args[first + 2] = arg3;
+
+        // Publishes the fields written above to the consumer
+        sequences.set(slot, position + 1);
+        return true;
+    }
+
+    /**
+     * Hands the oldest record to the consumer and frees its slot. Only one thread may poll.
+     *
+     * @return False if there was nothing to read
+     */
+    boolean poll(LogRecord into) {
+        int slot = (int) (head & mask);
+        if (sequences.get(slot) != head + 1) {
+            return false;
+        }
+
+        into.timeMillis = times[slot];
+        into.level = levels[slot];
+        into.thread = threads[slot];
+        into.source = sources[slot];
+        into.message = messages[slot];
+        into.argCount = argCounts[slot];
+        int first = slot * MAX_ARGS;
+        for (int i = 0; i < MAX_ARGS; i++) {
+            into.args[i] = args[first + i];
+            // Let the arguments be collected while the slot waits for its next record
+            args[first + i] = null;
+        }
+
+        sequences.set(slot, head + mask + 1);
+        head++;
+        return true;
+    }
+
+    /**
+     * A record read back by the consumer; reused for every record.
+     */
+    static final class LogRecord {
+        long timeMillis;
+        Log.Level level;
+        String thread;
+        String source;
+        String message;
+        int argCount;
+        final Object[] args = new Object[MAX_ARGS];
+    }
+}
@@ -1,69 +1,94 @@
 package com.clipphy.mediaplayer;
 
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.LinearGradientPaint;
+import java.awt.Polygon;
+import java.awt.RenderingHints;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import javafx.application.Platform;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.WritableImage;
-import javafx.scene.paint.Color;
-import javafx.scene.paint.LinearGradient;
-import javafx.scene.paint.Paint;
-import javafx.scene.paint.Stop;
-import javafx.scene.text.Font;
-import javafx.scene.text.FontWeight;
-import javafx.scene.text.TextAlignment;
 
 /**
  * Utility class to generate a logo for the TA Media Player application.
  * This creates a dynamic logo if a static resource isn't available.
+ *
+ * Logos are drawn with Java2D into a plain ARGB buffer and copied into a
+ * WritableImage, so they can be made on any thread. Every image is kept once
+ * made, and the standard icon sizes are rendered together in the background
+ * and stored in the data folder for later runs.
  */
 public class LogoGenerator {
-    
+
+    private static final Log LOG = Log.forClass(LogoGenerator.class);
+
+    // Sizes of the window icons, plus the logo shown in the About dialog
+    public static final int[] ICON_SIZES = {16, 32, 64, 128};
+    public static final int ABOUT_SIZE = 150;
+
+    private static final int FILE_MAGIC = 0x54414C47; // "TALG"
+    private static final int FILE_VERSION = 1;
+    private static final Path ICON_FILE = AppData.resolve("icons").resolve("logo.icons");
+
+    private static final Map<String, Image> images = new ConcurrentHashMap<>();
+    private static CompletableFuture<Map<Integer, Image>> icons;
+
+    /**
+     * Makes the detailed logo in all icon sizes and the About size, in one pass on a
+     * background thread, or reads them back from an earlier run. The callback runs on
+     * the FX thread with the images by size.
+     */
+    public static synchronized void loadIcons(Consumer<Map<Integer, Image>> callback) {
+        if (icons == null) {
+            icons = CompletableFuture.supplyAsync(LogoGenerator::loadOrRenderIcons, runnable -> {
+                Thread thread = new Thread(runnable, "logo-rasterizer");
+                thread.setDaemon(true);
+                thread.start();
+            });
+        }
+        icons.thenAccept(result -> Platform.runLater(() -> callback.accept(result)));
+    }
+
     /**
      * Generates a logo image of the specified size.
-     * 
+     *
      * @param size The width and height of the logo in pixels
      * @return The generated logo as an Image
      */
     public static Image generateLogo(int size) {
-        // Create a canvas to draw on
-        Canvas canvas = new Canvas(size, size);
-        GraphicsContext gc = canvas.getGraphicsContext2D();
-        
-        // Background - dark blue to royal blue gradient
-        LinearGradient gradient = new LinearGradient(
-            0, 0, size, size,
-            false, null,
-            new Stop(0, Color.rgb(20, 20, 50)),
-            new Stop(1, Color.rgb(40, 40, 120))
-        );
-        
-        gc.setFill(gradient);
-        gc.fillRoundRect(0, 0, size, size, size * 0.2, size * 0.2);
-        
-        // Add a subtle glow/border
-        gc.setStroke(Color.rgb(100, 150, 255, 0.7));
-        gc.setLineWidth(size * 0.05);
-        gc.strokeRoundRect(size * 0.05, size * 0.05, size * 0.9, size * 0.9, size * 0.15, size * 0.15);
-        
-        // Add text
-        gc.setTextAlign(TextAlignment.CENTER);
-        gc.setFill(Color.WHITE);
-        
-        // Font size is proportional to the logo size
-        double fontSize = size * 0.5;
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, fontSize));
-        
-        // Draw the text "TA" centered in the icon
-        gc.fillText("TA", size / 2, size * 0.65);
-        
-        // Convert the canvas to an image
-        WritableImage image = canvas.snapshot(null, null);
-        return image;
+        return images.computeIfAbsent("simple-" + size, key -> toImage(size, renderLogo(size)));
     }
-    
+
     /**
      * Generates a more detailed logo with a play button for larger icons.
-     * 
+     *
      * @param size The width and height of the logo in pixels
      * @return The generated logo as an Image
      */
@@ -72,106 +97,210 @@ public class LogoGenerator {
             // For smaller sizes, use the simple logo
             return generateLogo(size);
         }
-        
-        // Create a canvas to draw on
-        Canvas canvas = new Canvas(size, size);
-        GraphicsContext gc = canvas.getGraphicsContext2D();
-        
-        // Background - a more sophisticated gradient
-        LinearGradient gradient = new LinearGradient(
-            0, 0, size, size,
-            false, null,
-            new Stop(0, Color.rgb(30, 30, 70)),
-            new Stop(0.5, Color.rgb(40, 40, 100)),
-            new Stop(1, Color.rgb(50, 50, 150))
-        );
-        
-        gc.setFill(gradient);
-        gc.fillRoundRect(0, 0, size, size, size * 0.2, size * 0.2);
-        
-        // Add a glossy effect
-        Paint glossGradient = new LinearGradient(
-            0, 0, 0, size / 2,
-            false, null,
-            new Stop(0, Color.rgb(255, 255, 255, 0.3)),
-            new Stop(1, Color.rgb(255, 255, 255, 0.0))
-        );
-        
-        gc.setFill(glossGradient);
-        gc.fillRoundRect(size * 0.1, size * 0.1, size * 0.8, size * 0.4, size * 0.1, size * 0.1);
-        
-        // Draw the text "TA" at the top
-        gc.setTextAlign(TextAlignment.CENTER);
-        gc.setFill(Color.WHITE);
-        double fontSize = size * 0.35;
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, fontSize));
-        gc.fillText("TA", size / 2, size * 0.45);
-        
-        // Draw a play triangle in the bottom half
-        gc.setFill(Color.WHITE);
-        double triangleSize = size * 0.25;
-        double[] xPoints = {
-            size / 2 - triangleSize / 2,
-            size / 2 - triangleSize / 2,
-            size / 2 + triangleSize / 2
-        };
-        double[] yPoints = {
-            size * 0.6,
-            size * 0.6 + triangleSize,
-            size * 0.6 + triangleSize / 2
-        };
-        gc.fillPolygon(xPoints, yPoints, 3);
-        
-        // Add a subtle border
-        gc.setStroke(Color.rgb(100, 150, 255, 0.7));
-        gc.setLineWidth(size * 0.03);
-        gc.strokeRoundRect(size * 0.05, size * 0.05, size * 0.9, size * 0.9, size * 0.15, size * 0.15);
-        
-        // Convert the canvas to an image
-        WritableImage image = canvas.snapshot(null, null);
-        return image;
+        return images.computeIfAbsent("detailed-" + size, key -> toImage(size, renderDetailedLogo(size)));
     }
-    
+
     /**
      * Generates a light themed logo for when the user selects light mode
-     * 
+     *
      * @param size The width and height of the logo in pixels
      * @return The generated logo as an Image
      */
     public static Image generateLightThemeLogo(int size) {
-        // Create a canvas to draw on
-        Canvas canvas = new Canvas(size, size);
-        GraphicsContext gc = canvas.getGraphicsContext2D();
-        
+        return images.computeIfAbsent("light-" + size, key -> toImage(size, renderLightThemeLogo(size)));
+    }
+
+    private static Map<Integer, Image> loadOrRenderIcons() {
+        int[] sizes = new int[ICON_SIZES.length + 1];
+        System.arraycopy(ICON_SIZES, 0, sizes, 0, ICON_SIZES.length);
+        sizes[ICON_SIZES.length] = ABOUT_SIZE;
+
+        int[][] pixels = null;
+        try {
+            pixels = readIcons(sizes);
+        } catch (NoSuchFileException e) {
+            // First run
+        } catch (IOException e) {
+            LOG.warn("Could not read cached icons: {}", e.getMessage());
+        }
+
+        if (pixels == null) {
+            pixels = new int[sizes.length][];
+            for (int i = 0; i < sizes.length; i++) {
+                pixels[i] = sizes[i] < 64 ? renderLogo(sizes[i]) : renderDetailedLogo(sizes[i]);
+            }
+            try {
+                writeIcons(sizes, pixels);
+            } catch (IOException e) {
+                LOG.warn("Could not store icons: {}", e.getMessage());
+            }
+        }
+
+        Map<Integer, Image> result = new LinkedHashMap<>();
+        for (int i = 0; i < sizes.length; i++) {
+            int size = sizes[i];
+            int[] argb = pixels[i];
+            Image image = images.computeIfAbsent((size < 64 ? "simple-" : "detailed-") + size, key -> toImage(size, argb));
+            result.put(size, image);
+        }
+        return result;
+    }
+
+    private static void writeIcons(int[] sizes, int[][] pixels) throws IOException {
+        Files.createDirectories(ICON_FILE.getParent());
+        Path temp = ICON_FILE.resolveSibling(ICON_FILE.getFileName() + ".tmp");
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(sizes.length);
+            for (int size : sizes) {
+                out.writeInt(size);
+            }
+            DeflaterOutputStream compressed = new DeflaterOutputStream(out, deflater);
+            for (int[] argb : pixels) {
+                ByteBuffer bytes = ByteBuffer.allocate(argb.length * 4);
+                bytes.asIntBuffer().put(argb);
+                compressed.write(bytes.array());
+            }
+            compressed.finish();
+        } finally {
+            deflater.end();
+        }
+        Files.move(temp, ICON_FILE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads the icons stored by an earlier run.
+     *
+     * @return The pixels of each size, or null if the file holds other sizes
+     */
+    private static int[][] readIcons(int[] sizes) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(ICON_FILE)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION || in.readInt() != sizes.length) {
+                return null;
+            }
+            for (int size : sizes) {
+                if (in.readInt() != size) {
+                    return null;
+                }
+            }
+
+            int[][] pixels = new int[sizes.length][];
+            Inflater inflater = new Inflater();
+            try {
+                DataInputStream inflated = new DataInputStream(new InflaterInputStream(in, inflater));
+                for (int i = 0; i < sizes.length; i++) {
+                    byte[] bytes = new byte[sizes[i] * sizes[i] * 4];
+                    inflated.readFully(bytes);
+                    pixels[i] = new int[sizes[i] * sizes[i]];
+                    ByteBuffer.wrap(bytes).asIntBuffer().get(pixels[i]);
+                }
+            } finally {
+                inflater.end();
+            }
+            return pixels;
+        }
+    }
+
+    private static WritableImage toImage(int size, int[] argb) {
+        WritableImage image = new WritableImage(size, size);
+        image.getPixelWriter().setPixels(0, 0, size, size, PixelFormat.getIntArgbInstance(), argb, 0, size);
+        return image;
+    }
+
+    // Package-private so the benchmarks can measure rendering apart from the caches
+    static int[] renderLogo(int size) {
+        BufferedImage canvas = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D gc = createGraphics(canvas);
+
+        // Background - dark blue to royal blue gradient
+        gc.setPaint(new GradientPaint(0, 0, new Color(20, 20, 50), size, size, new Color(40, 40, 120)));
+        gc.fill(new RoundRectangle2D.Double(0, 0, size, size, size * 0.2, size * 0.2));
+
+        // Add a subtle glow/border
+        gc.setColor(new Color(100, 150, 255, 178));
+        gc.setStroke(new BasicStroke((float) (size * 0.05)));
+        gc.draw(new RoundRectangle2D.Double(size * 0.05, size * 0.05, size * 0.9, size * 0.9, size * 0.15, size * 0.15));
+
+        // Draw the text "TA" centered in the icon, font size proportional to the logo size
+        gc.setColor(Color.WHITE);
+        drawCenteredText(gc, "TA", size * 0.5, size / 2.0, size * 0.65);
+
+        gc.dispose();
+        return ((DataBufferInt) canvas.getRaster().getDataBuffer()).getData();
+    }
+
+    static int[] renderDetailedLogo(int size) {
+        BufferedImage canvas = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D gc = createGraphics(canvas);
+
+        // Background - a more sophisticated gradient
+        gc.setPaint(new LinearGradientPaint(0, 0, size, size, new float[] {0f, 0.5f, 1f},
+                new Color[] {new Color(30, 30, 70), new Color(40, 40, 100), new Color(50, 50, 150)}));
+        gc.fill(new RoundRectangle2D.Double(0, 0, size, size, size * 0.2, size * 0.2));
+
+        // Add a glossy effect
+        gc.setPaint(new GradientPaint(0, 0, new Color(255, 255, 255, 77), 0, size / 2f, new Color(255, 255, 255, 0)));
+        gc.fill(new RoundRectangle2D.Double(size * 0.1, size * 0.1, size * 0.8, size * 0.4, size * 0.1, size * 0.1));
+
+        // Draw the text "TA" at the top
+        gc.setColor(Color.WHITE);
+        drawCenteredText(gc, "TA", size * 0.35, size / 2.0, size * 0.45);
+
+        // Draw a play triangle in the bottom half
+        double triangleSize = size * 0.25;
+        Polygon triangle = new Polygon();
+        triangle.addPoint((int) Math.round(size / 2.0 - triangleSize / 2), (int) Math.round(size * 0.6));
+        triangle.addPoint((int) Math.round(size / 2.0 - triangleSize / 2), (int) Math.round(size * 0.6 + triangleSize));
+        triangle.addPoint((int) Math.round(size / 2.0 + triangleSize / 2), (int) Math.round(size * 0.6 + triangleSize / 2));
+        gc.fill(triangle);
+
+        // Add a subtle border
+        gc.setColor(new Color(100, 150, 255, 178));
+        gc.setStroke(new BasicStroke((float) (size * 0.03)));
+        gc.draw(new RoundRectangle2D.Double(size * 0.05, size * 0.05, size * 0.9, size * 0.9, size * 0.15, size * 0.15));
+
+        gc.dispose();
+        return ((DataBufferInt) canvas.getRaster().getDataBuffer()).getData();
+    }
+
+    private static int[] renderLightThemeLogo(int size) {
+        BufferedImage canvas = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D gc = createGraphics(canvas);
+
         // Background - light blue gradient
-        LinearGradient gradient = new LinearGradient(
-            0, 0, size, size,
-            false, null,
-            new Stop(0, Color.rgb(220, 240, 255)),
-            new Stop(1, Color.rgb(180, 210, 240))
-        );
-        
-        gc.setFill(gradient);
-        gc.fillRoundRect(0, 0, size, size, size * 0.2, size * 0.2);
-        
+        gc.setPaint(new GradientPaint(0, 0, new Color(220, 240, 255), size, size, new Color(180, 210, 240)));
+        gc.fill(new RoundRectangle2D.Double(0, 0, size, size, size * 0.2, size * 0.2));
+
         // Add a subtle border
-        gc.setStroke(Color.rgb(40, 100, 180, 0.7));
-        gc.setLineWidth(size * 0.05);
-        gc.strokeRoundRect(size * 0.05, size * 0.05, size * 0.9, size * 0.9, size * 0.15, size * 0.15);
-        
-        // Add text
-        gc.setTextAlign(TextAlignment.CENTER);
-        gc.setFill(Color.rgb(20, 60, 120)); // Dark blue text for light theme
-        
-        // Font size is proportional to the logo size
-        double fontSize = size * 0.5;
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, fontSize));
-        
-        // Draw the text "TA" centered in the icon
-        gc.fillText("TA", size / 2, size * 0.65);
-        
-        // Convert the canvas to an image
-        WritableImage image = canvas.snapshot(null, null);
-        return image;
+        gc.setColor(new Color(40, 100, 180, 178));
+        gc.setStroke(new BasicStroke((float) (size * 0.05)));
+        gc.draw(new RoundRectangle2D.Double(size * 0.05, size * 0.05, size * 0.9, size * 0.9, size * 0.15, size * 0.15));
+
+        // Dark blue text for light theme
+        gc.setColor(new Color(20, 60, 120));
+        drawCenteredText(gc, "TA", size * 0.5, size / 2.0, size * 0.65);
+
+        gc.dispose();
+        return ((DataBufferInt) canvas.getRaster().getDataBuffer()).getData();
+    }
+
+    private static Graphics2D createGraphics(BufferedImage canvas) {
+        Graphics2D gc = canvas.createGraphics();
+        gc.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        gc.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        gc.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        return gc;
+    }
+
+    /**
+     * Draws text centered on x with its baseline at y.
+     */
+    private static void drawCenteredText(Graphics2D gc, String text, double fontSize, double x, double y) {
+        gc.setFont(new Font("Arial", Font.BOLD, 1).deriveFont((float) fontSize));
+        double width = gc.getFontMetrics().stringWidth(text);
+        gc.drawString(text, (float) (x - width / 2), (float) y);
     }
-} 
\ No newline at end of file
+}
@@ -3,14 +3,20 @@ package com.clipphy.mediaplayer;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import javafx.animation.AnimationTimer;
 import javafx.animation.FadeTransition;
 import javafx.animation.KeyFrame;
 import javafx.animation.PauseTransition;
@@ -18,8 +24,11 @@ import javafx.animation.ScaleTransition;
 import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
-import javafx.beans.property.DoubleProperty;
+import javafx.collections.ListChangeListener;
 import javafx.fxml.FXML;
+import javafx.geometry.Insets;
+import javafx.geometry.Point2D;
+import javafx.geometry.Pos;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Cursor;
@@ -29,6 +38,8 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.input.MouseEvent;
 import javafx.scene.input.Dragboard;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyCombination;
@@ -41,8 +52,10 @@ import javafx.scene.layout.VBox;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
 import javafx.scene.media.MediaView;
+import javafx.scene.paint.Color;
 import javafx.stage.FileChooser;
 import javafx.stage.Modality;
+import javafx.stage.Popup;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import javafx.stage.WindowEvent;
@@ -50,6 +63,8 @@ import javafx.util.Duration;
 
 public class MainController implements Initializable {
 
+    private static final Log LOG = Log.forClass(MainController.class);
+
     @FXML private BorderPane mainPane;
     @FXML private Button playButton;
     @FXML private Button pauseButton;
@@ -61,21 +76,18 @@ public class MainController implements Initializable {
     @FXML private StackPane mediaPane;
     @FXML private MediaView mediaView;
     @FXML private Slider timeSlider;
+    @FXML private WaveformView waveformView;
+    @FXML private SpectrumVisualizer spectrumVisualizer;
     @FXML private Label currentTimeLabel;
     @FXML private Label totalTimeLabel;
     @FXML private Slider volumeSlider;
-    @FXML private ListView<String> playlistView;
+    @FXML private ListView<File> playlistView;
+    @FXML private Label playlistSummaryLabel;
     @FXML private Label mediaInfoLabel;
     @FXML private Label statusLabel;
-    @FXML private TabPane settingsTabPane;
     @FXML private ToggleButton playlistToggle;
     @FXML private VBox playlistPanel;
-    @FXML private ToggleGroup themeToggleGroup;
-    @FXML private Slider playbackSpeedSlider;
-    @FXML private ComboBox<String> equalizerPresetComboBox;
     @FXML private Label subtitleLabel;
-    @FXML private RadioButton darkThemeRadio;
-    @FXML private RadioButton lightThemeRadio;
     @FXML private Button maximizeButton;
     @FXML private Button themeToggleButton;
     @FXML private Label themeIcon;
@@ -84,6 +96,7 @@ public class MainController implements Initializable {
     @FXML private Button openFileButton;
     @FXML private Button subtitleButton;
     @FXML private Button aboutButton;
+    @FXML private Button cancelImportButton;
 
     @FXML private ImageView openFileIcon;
     @FXML private ImageView subtitleIcon;
@@ -94,22 +107,102 @@ public class MainController implements Initializable {
 
     private Stage stage;
     private MediaPlayer mediaPlayer;
+    private PlaybackSession playbackSession;
     private boolean isFullScreen = false;
     private boolean isMaximized = false;
     private boolean isMuted = false;
-    private final List<File> playlist = new ArrayList<>();
+    private final PlaylistModel playlist = new PlaylistModel();
     private int currentPlaylistIndex = -1;
     private final FileChooser fileChooser = new FileChooser();
+    private final FileChooser playlistChooser = new FileChooser();
+    private static final Path QUEUE_SNAPSHOT = AppData.resolve("queue" + PlaylistIO.SNAPSHOT_EXTENSION);
+    private volatile boolean queueRestored = false; // Until then, saving would overwrite the snapshot with an empty queue
+    private boolean shutDown = false;
     private FileChooser subtitleChooser = new FileChooser();
     private boolean isPlaying = false;
     private double currentVolume = 0.5;
     private SubtitleManager subtitleManager;
+    private FolderImporter folderImporter;
+    private MetadataCache metadataCache;
+    private static final long THUMBNAIL_MEMORY_BYTES = 48L * 1024 * 1024; // Sheets kept in memory, the rest stay on disk
+    private ThumbnailCache thumbnailCache; // Created once the window shows, or on first use
+    private ThumbnailGenerator thumbnailGenerator;
+    private WaveformAnalyzer waveformAnalyzer; // Created once the window shows, or on first use
+    private static final Color WAVEFORM_DARK_THEME_COLOR = Color.gray(1.0, 0.35);
+    private static final Color WAVEFORM_LIGHT_THEME_COLOR = Color.gray(0.0, 0.3);
+    private static final Color SPECTRUM_BAR_COLOR = Color.rgb(0, 150, 255, 0.8);
+    private ThumbnailSheet currentThumbnails; // Sheet of the playing file, possibly still filling up
+    private Popup thumbnailPopup;
+    private VBox thumbnailBox;
+    private ImageView thumbnailView;
+    private final WritableImage thumbnailImage = new WritableImage(ThumbnailGenerator.TILE_WIDTH, ThumbnailGenerator.TILE_HEIGHT);
+    private Label thumbnailTimeLabel;
+    private SettingsStore settings;
+    private CompletableFuture<FXMLLoader> aboutView; // Loaded in the background after the window first shows
+    private Stage aboutStage; // Built on first use and shown again on later clicks
+    private SettingsController settingsView; // Equalizer and settings tabs, loaded in the background once the window shows
+    private String equalizerPreset = EqualizerPresets.FLAT;
+    private double playbackRate = 1.0;
+    private static final Duration PREWARM_DELAY = Duration.seconds(1);
+    private static final String PREF_VOLUME = "volume";
+    private static final String PREF_MUTED = "muted";
+    private static final String PREF_RATE = "rate";
+    private static final String PREF_THEME = "theme";
+    private static final String PREF_EQUALIZER = "equalizer";
+    private static final String POSITION_PREFIX = "position:"; // Followed by the absolute path of the file
+    private static final Duration RESUME_MARGIN = Duration.seconds(5); // No resume this close to the start or end
+    private static final long POSITION_SAVE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private long lastPositionSaveNanos = 0;
+    private static final int METADATA_PROBE_WORKERS = 2; // Files opened at once to read their metadata
+    private long playlistKnownMillis = 0; // Total length of the items whose duration is known
+    private int playlistPendingCount = 0; // Items not probed yet
+    private int playlistUnknownCount = 0; // Items probed without a known duration
+    private final SeekScheduler seekScheduler = new SeekScheduler();
+    private PrerollStage prerollStage;
+    private File currentMediaFile;
+
+    // Recently played items stay open for instant previous/next; cap is configurable in MB
+    private static final int PLAYER_POOL_SIZE = 4;
+    private static final long PLAYER_POOL_BYTES = Long.getLong("tamediaplayer.playerPoolMb", 256L) * 1024 * 1024;
+    private final MediaPlayerPool playerPool = new MediaPlayerPool(PLAYER_POOL_SIZE, PLAYER_POOL_BYTES);
+    private static final Duration PREROLL_LEAD_TIME = Duration.seconds(8); // Open the next item this long before the end
     private String currentTheme = "dark-theme.css"; // Default to dark theme
     private ScheduledExecutorService executorService;
     private ScheduledFuture<?> cursorHideTask;
     private static final long CURSOR_HIDE_DELAY_MS = 3000; // Hide cursor after 3 seconds of inactivity
     private boolean isDarkTheme = true; // Track if we're using dark theme
 
+    // Playback state is sampled once per frame while playing
+    private final TimeFormatter timeFormatter = new TimeFormatter();
+    private final AnimationTimer refreshLoop = new AnimationTimer() {
+        @Override
+        public void start() {
+            lastPulseNanos = 0; // Time spent stopped is not a dropped pulse
+            super.start();
+        }
+
+        @Override
+        public void handle(long now) {
+            recordPulse(now);
+            refreshPlaybackState();
+        }
+    };
+    private int shownSecond = -1; // Whole second shown in the time label
+    private double shownSliderValue = -1; // Position last written to the time slider
+
+    // Playback metrics, published over JMX and shown in the stats overlay (F3)
+    private final MetricsRegistry metrics = MetricsRegistry.getDefault();
+    private final MetricsRegistry.Counter openedMedia = metrics.counter("playback.opened");
+    private final LatencyHistogram setupLatency = metrics.histogram("playback.setup");
+    private final LatencyHistogram readyLatency = metrics.histogram("playback.timeToReady");
+    private final LatencyHistogram firstFrameLatency = metrics.histogram("playback.timeToFirstFrame");
+    private final LatencyHistogram pulseIntervals = metrics.histogram("ui.pulseInterval");
+    private final MetricsRegistry.Counter droppedPulses = metrics.counter("ui.droppedPulses");
+    private static final long PULSE_NANOS = 1_000_000_000L / 60;
+    private long lastPulseNanos = 0;
+    private Label statsOverlay;
+    private Timeline statsRefresh;
+
     // Animation-related fields
     private FadeTransition controlBarFade;
     private Timeline controlBarHideTimeline;
@@ -130,56 +223,115 @@ public class MainController implements Initializable {
 
         // Initialize subtitle chooser
         subtitleChooser.getExtensionFilters().addAll(
-                new FileChooser.ExtensionFilter("Subtitle Files", "*.srt"),
+                new FileChooser.ExtensionFilter("Subtitle Files", SubtitleFormats.extensionPatterns()),
                 new FileChooser.ExtensionFilter("All Files", "*.*")
         );
 
+        // Preferences and resume positions load in the background and are applied once read
+        settings = new SettingsStore(AppData.resolve("settings.log"));
+        settings.whenLoaded(this::restoreSettings);
+
         // Initialize subtitle manager
         subtitleManager = new SubtitleManager(subtitleLabel);
+        prerollStage = new PrerollStage(subtitleManager);
+
+        // Keep the subtitle schedule in step with every seek that reaches the player
+        seekScheduler.setOnSeek(time -> subtitleManager.resync(time));
+
+        // Durations come from the metadata cache; unknown files are probed in the background once the window shows
+        metadataCache = new MetadataCache(AppData.resolve("metadata.cache"), METADATA_PROBE_WORKERS, this::onMetadataUpdated);
+
+        // Bind the playlist view straight to the model; cells show the file name and its duration once known
+        playlistView.setItems(playlist.getItems());
+        playlistView.setCellFactory(view -> new ListCell<>() {
+            @Override
+            protected void updateItem(File file, boolean empty) {
+                super.updateItem(file, empty);
+                if (empty || file == null) {
+                    setText(null);
+                    return;
+                }
 
-        // Initialize playlist toggle
-        playlistToggle.selectedProperty().addListener((obs, oldVal, newVal) -> {
-            playlistPanel.setVisible(newVal);
-            playlistPanel.setManaged(newVal);
+                MetadataCache.Entry entry = metadataCache.get(file);
+                if (entry != null && entry.getDurationMillis() >= 0) {
+                    setText(file.getName() + "  [" + formatTime(Duration.millis(entry.getDurationMillis())) + "]");
+                } else {
+                    setText(file.getName());
+                    // Items on screen are probed before the rest of the queue
+                    metadataCache.request(file, true);
+                }
+            }
         });
 
-        // Initialize volume slider
-        volumeSlider.setValue(50);
-        volumeSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
-            if (mediaPlayer != null) {
-                currentVolume = newVal.doubleValue() / 100.0;
-                mediaPlayer.setVolume(currentVolume);
+        // Keep the running total in step with every playlist change
+        playlist.getItems().addListener((ListChangeListener<File>) change -> {
+            while (change.next()) {
+                for (File removed : change.getRemoved()) {
+                    countPlaylistDuration(removed, -1);
+                }
+                for (File added : change.getAddedSubList()) {
+                    countPlaylistDuration(added, 1);
+                    metadataCache.request(added, false);
+                }
+            }
+            if (playlist.isEmpty()) {
+                metadataCache.cancelPending();
             }
+            updatePlaylistSummary();
         });
 
-        // Initialize equalizer presets
-        equalizerPresetComboBox.getItems().addAll(
-                "Flat", "Bass Boost", "Treble Boost", "Vocal", "Rock", "Pop", "Jazz", "Classical"
+        // Initialize playlist chooser; the first filter picks the format when saving
+        playlistChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("M3U Playlist", "*.m3u8", "*.m3u"),
+                new FileChooser.ExtensionFilter("PLS Playlist", "*.pls"),
+                new FileChooser.ExtensionFilter("TA Media Player Queue", "*" + PlaylistIO.SNAPSHOT_EXTENSION),
+                new FileChooser.ExtensionFilter("All Files", "*.*")
         );
-        equalizerPresetComboBox.setValue("Flat");
 
-        // Initialize playback speed slider
-        playbackSpeedSlider.setValue(1.0);
-        playbackSpeedSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
-            if (mediaPlayer != null) {
-                mediaPlayer.setRate(newVal.doubleValue());
-                statusLabel.setText("Playback Speed: " + String.format("%.1fx", newVal.doubleValue()));
+        // Import dropped and opened files and folders in the background
+        folderImporter = new FolderImporter(this::isMediaFile, new FolderImporter.Listener() {
+            @Override
+            public void onBatch(List<File> files) {
+                // A restored queue has a current item but nothing loaded yet
+                boolean nothingPlaying = mediaPlayer == null || currentPlaylistIndex == -1;
+                playlist.addAll(files);
+
+                // Start playing the first imported file if nothing was queued before
+                if (nothingPlaying && !playlist.isEmpty()) {
+                    currentPlaylistIndex = Math.max(0, playlist.indexOf(files.get(0)));
+                    playMedia(playlist.get(currentPlaylistIndex));
+                    showDropSuccessAnimation();
+                }
+            }
+
+            @Override
+            public void onProgress(int filesFound, int foldersScanned) {
+                cancelImportButton.setVisible(true);
+                cancelImportButton.setManaged(true);
+                statusLabel.setText("Importing: " + filesFound + " files found in " + foldersScanned + " folders");
+            }
+
+            @Override
+            public void onFinished(int filesFound, boolean cancelled) {
+                cancelImportButton.setVisible(false);
+                cancelImportButton.setManaged(false);
+                statusLabel.setText(cancelled ? "Import cancelled" : "Imported " + filesFound + " files");
             }
         });
 
-        // Initialize theme selection
-        darkThemeRadio.setSelected(true);
-        darkThemeRadio.setUserData("dark-theme.css");
-        lightThemeRadio.setUserData("light-theme.css");
+        // Initialize playlist toggle
+        playlistToggle.selectedProperty().addListener((obs, oldVal, newVal) -> {
+            playlistPanel.setVisible(newVal);
+            playlistPanel.setManaged(newVal);
+        });
 
-        themeToggleGroup.selectedToggleProperty().addListener((obs, oldVal, newVal) -> {
-            if (newVal != null) {
-                String themeName = newVal.getUserData().toString();
-                applyTheme(themeName);
-                updateThemeToggleButton(themeName);
-            } else {
-                // If no theme is selected, reselect the previous one
-                themeToggleGroup.selectToggle(oldVal);
+        // Initialize volume slider
+        volumeSlider.setValue(50);
+        volumeSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
+            currentVolume = newVal.doubleValue() / 100.0;
+            settings.put(PREF_VOLUME, currentVolume);
+            if (mediaPlayer != null) {
+                mediaPlayer.setVolume(currentVolume);
             }
         });
 
@@ -200,50 +352,282 @@ public class MainController implements Initializable {
         // Initialize executor service for cursor hiding
         executorService = new ScheduledThreadPoolExecutor(1);
 
+        // Bring back the queue of the last session, read in the background
+        restoreQueue();
+
         // Initialize theme toggle button icons
         updateThemeToggleButton(currentTheme);
         
         // Initialize timeline slider click-to-seek functionality
         setupTimelineClickSeek();
+
+        // Show preview frames while hovering over the timeline
+        setupThumbnailPreview();
         
         // Initialize animations for control bar
         setupControlBarAnimations();
 
         // Initialize icons based on default theme
         updateIconsForTheme();
+
+        // Prepare the overlay that shows the playback metrics; they are published over JMX once the window shows
+        metrics.gauge("session.listeners", PlaybackSession::getLiveListenerCount);
+        setupStatsOverlay();
+    }
+
+    /**
+     * Starts what the first frame does not need: the metadata probes, the
+     * preview and waveform caches, the JMX metrics and the settings tabs.
+     * Called once the main window is showing.
+     */
+    public void startDeferredWork() {
+        metadataCache.start();
+        thumbnailCache();
+        waveformAnalyzer();
+        metrics.registerMBean();
+        loadSettingsView();
+    }
+
+    private ThumbnailCache thumbnailCache() {
+        if (thumbnailCache == null) {
+            thumbnailCache = new ThumbnailCache(AppData.resolve("thumbnails"), THUMBNAIL_MEMORY_BYTES);
+        }
+        return thumbnailCache;
+    }
+
+    private WaveformAnalyzer waveformAnalyzer() {
+        if (waveformAnalyzer == null) {
+            waveformAnalyzer = new WaveformAnalyzer(AppData.resolve("waveforms"));
+        }
+        return waveformAnalyzer;
+    }
+
+    /**
+     * Loads the settings tabs in the background and adds them below the playlist
+     */
+    private void loadSettingsView() {
+        if (settingsView != null || executorService == null) {
+            return;
+        }
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return loadView("settings-view.fxml");
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executorService).whenComplete((loader, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                LOG.error("Could not load the settings tabs", error);
+            } else if (settingsView == null && !shutDown) {
+                attachSettingsView(loader);
+            }
+        }));
+    }
+
+    private void attachSettingsView(FXMLLoader loader) {
+        settingsView = loader.getController();
+
+        // Show the current values first, so they are not reported back as changes
+        settingsView.showEqualizerPreset(equalizerPreset);
+        settingsView.showPlaybackRate(playbackRate);
+        settingsView.showTheme(currentTheme);
+        settingsView.setListener(new SettingsController.Listener() {
+            @Override
+            public void onEqualizerPresetChanged(String preset) {
+                changeEqualizerPreset(preset);
+            }
+
+            @Override
+            public void onPlaybackRateChanged(double rate) {
+                changePlaybackRate(rate);
+            }
+
+            @Override
+            public void onThemeChanged(String themeName) {
+                applyTheme(themeName);
+            }
+        });
+        playlistPanel.getChildren().add(loader.getRoot());
+    }
+
+    private void changeEqualizerPreset(String preset) {
+        if (preset.equals(equalizerPreset)) {
+            return;
+        }
+        equalizerPreset = preset;
+        settings.put(PREF_EQUALIZER, preset);
+        if (mediaPlayer != null) {
+            EqualizerPresets.apply(preset, mediaPlayer.getAudioEqualizer());
+            statusLabel.setText("Equalizer: " + preset);
+        }
+        if (settingsView != null) {
+            settingsView.showEqualizerPreset(preset);
+        }
+    }
+
+    private void changePlaybackRate(double rate) {
+        if (rate == playbackRate) {
+            return;
+        }
+        playbackRate = rate;
+        settings.put(PREF_RATE, rate);
+        if (mediaPlayer != null) {
+            mediaPlayer.setRate(rate);
+            statusLabel.setText("Playback Speed: " + String.format("%.1fx", rate));
+        }
+        if (settingsView != null) {
+            settingsView.showPlaybackRate(rate);
+        }
+    }
+
+    private void setupStatsOverlay() {
+        statsOverlay = new Label();
+        statsOverlay.setStyle("-fx-text-fill: white; -fx-font-family: monospace; -fx-font-size: 11px; "
+                + "-fx-background-color: rgba(0, 0, 0, 0.7); -fx-padding: 6; -fx-background-radius: 4;");
+        statsOverlay.setMouseTransparent(true);
+        statsOverlay.setVisible(false);
+        StackPane.setAlignment(statsOverlay, Pos.TOP_LEFT);
+        StackPane.setMargin(statsOverlay, new Insets(10));
+        mediaPane.getChildren().add(statsOverlay);
+
+        // Refreshed only while shown
+        statsRefresh = new Timeline(new KeyFrame(Duration.seconds(1), e -> statsOverlay.setText(metrics.format())));
+        statsRefresh.setCycleCount(Timeline.INDEFINITE);
+    }
+
+    private void toggleStatsOverlay() {
+        boolean show = !statsOverlay.isVisible();
+        statsOverlay.setVisible(show);
+        if (show) {
+            statsOverlay.setText(metrics.format());
+            statsRefresh.play();
+        } else {
+            statsRefresh.stop();
+        }
+    }
+
+    /**
+     * Records the time since the previous frame of the refresh loop and counts frames that were skipped
+     */
+    private void recordPulse(long now) {
+        if (lastPulseNanos != 0) {
+            long interval = now - lastPulseNanos;
+            pulseIntervals.recordNanos(interval);
+            if (interval > PULSE_NANOS * 3 / 2) {
+                droppedPulses.add(Math.round((double) interval / PULSE_NANOS) - 1);
+            }
+        }
+        lastPulseNanos = now;
+    }
+
+
+    private void setupThumbnailPreview() {
+        // The popup is built on first hover; handlers are added rather than set, the scrub handlers stay in place
+        timeSlider.addEventHandler(MouseEvent.MOUSE_MOVED, this::showThumbnailAt);
+        timeSlider.addEventHandler(MouseEvent.MOUSE_DRAGGED, this::showThumbnailAt);
+        timeSlider.addEventHandler(MouseEvent.MOUSE_EXITED, event -> {
+            if (thumbnailPopup != null) {
+                thumbnailPopup.hide();
+            }
+        });
     }
 
+    private void createThumbnailPopup() {
+        thumbnailView = new ImageView(thumbnailImage);
+        thumbnailTimeLabel = new Label();
+        thumbnailTimeLabel.setStyle("-fx-text-fill: white; -fx-font-size: 11px;");
+        thumbnailBox = new VBox(2, thumbnailView, thumbnailTimeLabel);
+        thumbnailBox.setAlignment(Pos.CENTER);
+        thumbnailBox.setStyle("-fx-background-color: rgba(0, 0, 0, 0.85); -fx-padding: 3; -fx-background-radius: 4;");
+        thumbnailBox.setMouseTransparent(true);
+
+        thumbnailPopup = new Popup();
+        thumbnailPopup.getContent().add(thumbnailBox);
+    }
+
+    /**
+     * Shows the preview frame and time under the mouse above the timeline
+     */
+    private void showThumbnailAt(MouseEvent event) {
+        if (mediaPlayer == null || stage == null || timeSlider.getMax() <= 0 || timeSlider.getWidth() <= 0) {
+            return;
+        }
+        if (thumbnailPopup == null) {
+            createThumbnailPopup();
+        }
+
+        double percent = Math.max(0, Math.min(1, event.getX() / timeSlider.getWidth()));
+        Duration time = Duration.seconds(percent * timeSlider.getMax());
+        thumbnailTimeLabel.setText(formatTime(time));
+
+        int tile = currentThumbnails != null ? currentThumbnails.tileFor((long) time.toMillis()) : -1;
+        if (tile >= 0) {
+            currentThumbnails.copyTile(tile, thumbnailImage.getPixelWriter());
+        }
+        thumbnailView.setVisible(tile >= 0);
+        thumbnailView.setManaged(tile >= 0);
+
+        double width = thumbnailBox.getWidth() > 0 ? thumbnailBox.getWidth() : ThumbnailGenerator.TILE_WIDTH + 6;
+        double height = thumbnailBox.getHeight() > 0 ? thumbnailBox.getHeight() : ThumbnailGenerator.TILE_HEIGHT + 24;
+        Point2D anchor = timeSlider.localToScreen(event.getX(), 0);
+        if (anchor != null) {
+            thumbnailPopup.show(stage, anchor.getX() - width / 2, anchor.getY() - height - 6);
+        }
+    }
+
+    /**
+     * Finds the preview frames of a file in the cache, or starts taking them in the background
+     */
+    private void loadThumbnails(File file) {
+        currentThumbnails = null;
+
+        // Audio files have no frames to show
+        MetadataCache.Entry entry = metadataCache.get(file);
+        if (entry != null && entry.isProbed() && entry.getWidth() <= 0) {
+            return;
+        }
+
+        thumbnailCache().load(file, sheet -> {
+            if (!file.equals(currentMediaFile)) {
+                return; // Switched to another file meanwhile
+            }
+            if (sheet != null) {
+                currentThumbnails = sheet;
+            } else {
+                if (thumbnailGenerator == null) {
+                    // The offscreen player and its scene are only needed once a video lacks previews
+                    thumbnailGenerator = new ThumbnailGenerator();
+                }
+                thumbnailGenerator.start(file,
+                        started -> currentThumbnails = started,
+                        finished -> thumbnailCache().put(file, finished));
+            }
+        });
+    }
 
     private void setupTimelineClickSeek() {
         // Handle mouse press on the timeline to seek
         timeSlider.setOnMousePressed(event -> {
             if (mediaPlayer != null) {
-                mediaPlayer.seek(Duration.seconds(timeSlider.getValue()));
+                seekScheduler.request(Duration.seconds(timeSlider.getValue()));
             }
         });
         
-        // Handle mouse drag on the timeline for continuous seeking
+        // Handle mouse drag on the timeline for continuous seeking; requests are coalesced
         timeSlider.setOnMouseDragged(event -> {
             if (mediaPlayer != null) {
-                mediaPlayer.seek(Duration.seconds(timeSlider.getValue()));
+                seekScheduler.request(Duration.seconds(timeSlider.getValue()));
             }
         });
-        
-        // Handle direct clicks on the track (not just the thumb)
-        timeSlider.setOnMouseClicked(event -> {
+
+        // Land precisely on the final position when the scrub ends. A click on the
+        // track moves the slider on press, so this also commits plain clicks; the
+        // slider's value is the only target, so one click sends one seek
+        timeSlider.setOnMouseReleased(event -> {
             if (mediaPlayer != null) {
-                // Calculate the position based on the click location
-                double percent = event.getX() / timeSlider.getWidth();
-                double newValue = percent * timeSlider.getMax();
-                
-                // Update the slider value
-                timeSlider.setValue(newValue);
-                
-                // Seek to the new position
-                mediaPlayer.seek(Duration.seconds(newValue));
-                
-                // Update the time label immediately
-                currentTimeLabel.setText(formatTime(Duration.seconds(newValue)));
+                Duration target = Duration.seconds(timeSlider.getValue());
+                seekScheduler.commit(target);
+                currentTimeLabel.setText(formatTime(target));
             }
         });
     }
@@ -295,8 +679,15 @@ public class MainController implements Initializable {
     public void setStage(Stage stage) {
         this.stage = stage;
 
-        // Apply default theme on startup
-        applyTheme(currentTheme);
+        // Apply the current theme on startup, which may have been restored before the window existed
+        if (stage.getScene() != null) {
+            stage.getScene().getStylesheets().setAll(ThemeAssets.stylesheet(currentTheme));
+        }
+
+        // Prepare secondary windows once the main window has had time to paint
+        PauseTransition prewarm = new PauseTransition(PREWARM_DELAY);
+        prewarm.setOnFinished(e -> prewarmAboutView());
+        prewarm.play();
 
         // Set up full-screen bindings with enhanced transitions
         stage.fullScreenProperty().addListener((obs, oldVal, newVal) -> {
@@ -443,13 +834,13 @@ public class MainController implements Initializable {
     private void updateButtonVisibility(Button button, String text, String icon, boolean isSmallWindow) {
 
         if (button == null) {
-            System.out.println("Button is null");
+            LOG.debug("Button is null");
             return;
         }
 
         HBox content = (HBox) button.getGraphic();
         if (content == null) {
-            System.out.println("Button graphic (HBox) is null for button: " + button.getId());
+            LOG.debug("Button graphic (HBox) is null for button: {}", button.getId());
             return;
         }
 
@@ -467,9 +858,9 @@ public class MainController implements Initializable {
         if (textLabel != null) {
             textLabel.setVisible(!isSmallWindow);
             textLabel.setManaged(!isSmallWindow);
-            System.out.println("Text label set to visible: " + !isSmallWindow + " for button: " + button.getId());
+            LOG.debug("Text label set to visible: {} for button: {}", !isSmallWindow, button.getId());
         } else {
-            System.out.println("Text label is null for button: " + button.getId());
+            LOG.debug("Text label is null for button: {}", button.getId());
         }
 
         if (iconView != null) {
@@ -477,9 +868,9 @@ public class MainController implements Initializable {
             iconView.setManaged(isSmallWindow);
             iconView.setFitWidth(isSmallWindow ? 18 : 16);
             iconView.setFitHeight(isSmallWindow ? 18 : 16);
-            System.out.println("Icon view set to visible: " + isSmallWindow + " for button: " + button.getId());
+            LOG.debug("Icon view set to visible: {} for button: {}", isSmallWindow, button.getId());
         } else {
-            System.out.println("Icon view is null for button: " + button.getId());
+            LOG.debug("Icon view is null for button: {}", button.getId());
         }
 
         content.setSpacing(isSmallWindow ? 0 : 4);
@@ -495,13 +886,13 @@ public class MainController implements Initializable {
      */
     private void updateToggleButtonVisibility(ToggleButton button, String text, String iconName, boolean isSmallWindow) {
         if (button == null) {
-            System.out.println("ToggleButton is null");
+            LOG.debug("ToggleButton is null");
             return;
         }
 
         HBox content = (HBox) button.getGraphic();
         if (content == null) {
-            System.out.println("ToggleButton graphic (HBox) is null for button: " + button.getId());
+            LOG.debug("ToggleButton graphic (HBox) is null for button: {}", button.getId());
             return;
         }
 
@@ -519,9 +910,9 @@ public class MainController implements Initializable {
         if (textLabel != null) {
             textLabel.setVisible(!isSmallWindow);
             textLabel.setManaged(!isSmallWindow);
-            System.out.println("Text label set to visible: " + !isSmallWindow + " for toggle button: " + button.getId());
+            LOG.debug("Text label set to visible: {} for toggle button: {}", !isSmallWindow, button.getId());
         } else {
-            System.out.println("Text label is null for toggle button: " + button.getId());
+            LOG.debug("Text label is null for toggle button: {}", button.getId());
         }
 
         if (iconView != null) {
@@ -529,9 +920,9 @@ public class MainController implements Initializable {
             iconView.setManaged(isSmallWindow);
             iconView.setFitWidth(isSmallWindow ? 18 : 16);
             iconView.setFitHeight(isSmallWindow ? 18 : 16);
-            System.out.println("Icon view set to visible: " + isSmallWindow + " for toggle button: " + button.getId());
+            LOG.debug("Icon view set to visible: {} for toggle button: {}", isSmallWindow, button.getId());
         } else {
-            System.out.println("Icon view is null for toggle button: " + button.getId());
+            LOG.debug("Icon view is null for toggle button: {}", button.getId());
         }
 
         content.setSpacing(isSmallWindow ? 0 : 4);
@@ -558,18 +949,13 @@ public class MainController implements Initializable {
      * Updates all icons based on the current theme
      */
     private void updateIconsForTheme() {
-        String iconPath = isDarkTheme ? "/com/clipphy/mediaplayer/images/white/" : "/com/clipphy/mediaplayer/images/black/";
-        try {
-            openFileIcon.setImage(new Image(getClass().getResource(iconPath + "folder" + (isDarkTheme ? "-white.png" : "-black.png")).toString()));
-            subtitleIcon.setImage(new Image(getClass().getResource(iconPath + "subtitle" + (isDarkTheme ? "-white.png" : "-black.png")).toString()));
-            fullscreenIcon.setImage(new Image(getClass().getResource(iconPath + "fullscreen" + (isDarkTheme ? "-white.png" : "-black.png")).toString()));
-            aboutIcon.setImage(new Image(getClass().getResource(iconPath + "info" + (isDarkTheme ? "-white.png" : "-black.png")).toString()));
-            settingsIcon.setImage(new Image(getClass().getResource(iconPath + "settings" + (isDarkTheme ? "-white.png" : "-black.png")).toString()));
-            playlistIcon.setImage(new Image(getClass().getResource(iconPath + "playlist" + (isDarkTheme ? "-white.png" : "-black.png")).toString()));
-        } catch (NullPointerException e) {
-            System.out.println("Error loading icon: " + e.getMessage());
-            e.printStackTrace();
-        }
+        // The icons are decoded once at startup, so this only swaps references
+        openFileIcon.setImage(ThemeAssets.icon("folder", isDarkTheme));
+        subtitleIcon.setImage(ThemeAssets.icon("subtitle", isDarkTheme));
+        fullscreenIcon.setImage(ThemeAssets.icon("fullscreen", isDarkTheme));
+        aboutIcon.setImage(ThemeAssets.icon("info", isDarkTheme));
+        settingsIcon.setImage(ThemeAssets.icon("settings", isDarkTheme));
+        playlistIcon.setImage(ThemeAssets.icon("playlist", isDarkTheme));
     }
 
     private void setupFullscreenControlBar() {
@@ -637,42 +1023,21 @@ public class MainController implements Initializable {
             
             if (db.hasFiles()) {
                 success = true;
-                List<File> mediaFiles = new ArrayList<>();
-                List<File> subtitleFiles = new ArrayList<>();
-                
-                // Sort files into media and subtitle categories
-                for (File file : db.getFiles()) {
-                    if (isMediaFile(file)) {
-                        mediaFiles.add(file);
-                    } else if (file.getName().toLowerCase().endsWith(".srt")) {
-                        subtitleFiles.add(file);
-                    }
-                }
-                
-                // Process media files
-                for (File file : mediaFiles) {
-                    addToPlaylist(file);
-                }
-                
-                // If we have media files, play the first one
-                if (!mediaFiles.isEmpty()) {
-                    // If the playlist was empty, set the index to 0
-                    boolean firstFile = (currentPlaylistIndex == -1);
-                    
-                    if (firstFile) {
-                        currentPlaylistIndex = 0;
-                        // Play the first dropped media file
-                        playMedia(mediaFiles.get(0));
-                        
-                        // Show success animation
-                        showDropSuccessAnimation();
+
+                FxWatchdog.run("Classifying " + db.getFiles().size() + " dropped files", () -> {
+                    // Media files and folders are classified and walked in the background
+                    folderImporter.importFiles(db.getFiles());
+
+                    // A dropped subtitle file applies to the media that is playing
+                    if (mediaPlayer != null) {
+                        for (File file : db.getFiles()) {
+                            if (SubtitleFormats.isSubtitleFile(file)) {
+                                loadSubtitleFile(file);
+                                break;
+                            }
+                        }
                     }
-                }
-                
-                // Process subtitle files if a media is playing
-                if (!subtitleFiles.isEmpty() && mediaPlayer != null) {
-                    loadSubtitleFile(subtitleFiles.get(0));
-                }
+                });
             }
             
             // Remove visual feedback
@@ -706,6 +1071,10 @@ public class MainController implements Initializable {
                 // Toggle maximized with F10 key
                 toggleMaximize();
                 event.consume();
+            } else if (event.getCode() == KeyCode.F3) {
+                // Show or hide the playback statistics
+                toggleStatsOverlay();
+                event.consume();
             }
         });
     }
@@ -732,37 +1101,44 @@ public class MainController implements Initializable {
     }
 
     private void applyTheme(String themeName) {
-        if (stage != null) {
+        // Only update if the theme is actually changing
+        if (themeName.equals(currentTheme)) {
+            return;
+        }
+
+        currentTheme = themeName;
+        isDarkTheme = themeName.contains("dark");
+        settings.put(PREF_THEME, themeName);
+        waveformView.setColor(isDarkTheme ? WAVEFORM_DARK_THEME_COLOR : WAVEFORM_LIGHT_THEME_COLOR);
+        spectrumVisualizer.setColors(SPECTRUM_BAR_COLOR, isDarkTheme ? WAVEFORM_DARK_THEME_COLOR : WAVEFORM_LIGHT_THEME_COLOR);
+
+        // Update the theme toggle button appearance, the icon set and the settings tab
+        updateThemeToggleButton(themeName);
+        updateIconsForTheme();
+        if (settingsView != null) {
+            settingsView.showTheme(themeName);
+        }
+
+        // A theme restored before the window exists is put in place by setStage
+        if (stage != null && stage.getScene() != null) {
             Scene scene = stage.getScene();
-            
-            // Only update if the theme is actually changing
-            if (!themeName.equals(currentTheme)) {
-                // Create fade transition for theme change
-                FadeTransition fade = new FadeTransition(Duration.millis(200), mainPane);
-                fade.setFromValue(0.8);
-                fade.setToValue(1.0);
-                
-                // When fade starts, change the stylesheet
-                fade.setOnFinished(e -> {
-                    // Remove the current stylesheet
-                    scene.getStylesheets().clear();
-                    
-                    // Add the new stylesheet
-                    scene.getStylesheets().add(getClass().getResource("/com/clipphy/mediaplayer/css/" + themeName).toExternalForm());
-                });
-                
-                // Start the fade animation
-                fade.play();
-                
-                currentTheme = themeName;
-                isDarkTheme = themeName.contains("dark");
-                String themeType = isDarkTheme ? "Dark" : "Light";
-                
-                // Update the theme toggle button appearance
-                updateThemeToggleButton(themeName);
-                
-                statusLabel.setText("Theme changed to: " + themeType);
-            }
+
+            // Create fade transition for theme change
+            FadeTransition fade = new FadeTransition(Duration.millis(200), mainPane);
+            fade.setFromValue(0.8);
+            fade.setToValue(1.0);
+
+            // When fade starts, change the stylesheet
+            fade.setOnFinished(e -> {
+                // Swap in the new stylesheet; it is already parsed and cached
+                scene.getStylesheets().setAll(ThemeAssets.stylesheet(themeName));
+            });
+
+            // Start the fade animation
+            fade.play();
+
+            String themeType = isDarkTheme ? "Dark" : "Light";
+            statusLabel.setText("Theme changed to: " + themeType);
         }
     }
 
@@ -782,32 +1158,16 @@ public class MainController implements Initializable {
     private void handleThemeToggle() {
         // Toggle between light and dark theme
         String newTheme = currentTheme.contains("dark") ? "light-theme.css" : "dark-theme.css";
-        
-        // Update radio buttons to match
-        if (newTheme.equals("dark-theme.css")) {
-            darkThemeRadio.setSelected(true);
-        } else {
-            lightThemeRadio.setSelected(true);
-        }
-        
+
+        // Also selects the matching radio button once the settings tab is built
         applyTheme(newTheme);
-        updateIconsForTheme();
     }
 
     @FXML
     private void handleOpenFile() {
         List<File> selectedFiles = fileChooser.showOpenMultipleDialog(stage);
         if (selectedFiles != null) {
-            boolean firstFile = playlist.isEmpty();
-
-            for (File file : selectedFiles) {
-                addToPlaylist(file);
-            }
-
-            if (firstFile) {
-                currentPlaylistIndex = 0;
-                playMedia(playlist.get(0));
-            }
+            folderImporter.importFiles(selectedFiles);
         }
     }
 
@@ -820,57 +1180,108 @@ public class MainController implements Initializable {
     }
 
     private void loadSubtitleFile(File file) {
-        if (file != null && file.exists() && file.getName().toLowerCase().endsWith(".srt")) {
+        if (file != null && file.exists() && SubtitleFormats.isSubtitleFile(file)) {
             if (mediaPlayer != null) {
-                boolean success = subtitleManager.loadSubtitle(file);
-                if (success) {
-                    statusLabel.setText("Subtitle loaded: " + file.getName());
-                } else {
-                    statusLabel.setText("Failed to load subtitle");
-                }
+                statusLabel.setText("Loading subtitle: " + file.getName());
+                subtitleManager.loadSubtitle(file, success -> {
+                    if (success) {
+                        statusLabel.setText("Subtitle loaded: " + file.getName());
+                    } else {
+                        statusLabel.setText("Failed to load subtitle");
+                    }
+                });
             } else {
                 statusLabel.setText("Please load a video first");
             }
         }
     }
 
-    private void addToPlaylist(File file) {
-        if (!playlist.contains(file)) {
-            playlist.add(file);
-            playlistView.getItems().add(file.getName());
-        }
-    }
-
     private void playMedia(File file) {
-        if (mediaPlayer != null) {
-            mediaPlayer.stop();
-            mediaPlayer.dispose();
-        }
+        long openStartNanos = System.nanoTime();
+        openedMedia.increment();
+
+        // Use the pre-rolled player if this is the item that was prepared and it has finished opening
+        PrerollStage.Prepared prepared = prerollStage.take(file);
+
+        // Tear down every listener and binding of the previous media and park its player
+        releasePlaybackSession();
 
         try {
-            Media media = new Media(file.toURI().toString());
-            mediaPlayer = new MediaPlayer(media);
+            MediaPlayer pooled = prepared == null ? playerPool.acquire(file) : null;
+            if (prepared != null) {
+                mediaPlayer = prepared.getMediaPlayer();
+            } else if (pooled != null) {
+                mediaPlayer = pooled;
+            } else {
+                mediaPlayer = FxWatchdog.call("Opening " + file.getName(),
+                        () -> new MediaPlayer(new Media(file.toURI().toString())));
+            }
+            currentMediaFile = file;
+            Media media = mediaPlayer.getMedia();
+            PlaybackSession session = new PlaybackSession(mediaPlayer);
+            playbackSession = session;
             mediaView.setMediaPlayer(mediaPlayer);
 
             // Link subtitle manager to new media player
             subtitleManager.setMediaPlayer(mediaPlayer);
+            session.onDetach(() -> subtitleManager.setMediaPlayer(null));
+
+            // Route all timeline seeks through the coalescing scheduler
+            seekScheduler.attach(session);
+
+            // Audio files the built-in decoders can read get a waveform behind the timeline
+            if (WaveformAnalyzer.canAnalyze(file)) {
+                waveformAnalyzer().analyze(file, waveformView::setPyramid);
+                session.onDetach(() -> {
+                    waveformAnalyzer().cancel();
+                    waveformView.setPyramid(null);
+                });
+            }
+
+            // Hover previews come from the cache or from an offscreen player, never from this one
+            loadThumbnails(file);
+            session.onDetach(() -> {
+                if (thumbnailGenerator != null) {
+                    thumbnailGenerator.cancel();
+                }
+                currentThumbnails = null;
+            });
 
             // Make media view resize with the window
-            DoubleProperty width = mediaView.fitWidthProperty();
-            DoubleProperty height = mediaView.fitHeightProperty();
-            width.bind(Bindings.selectDouble(mediaView.sceneProperty(), "width"));
-            height.bind(Bindings.selectDouble(mediaView.sceneProperty(), "height"));
+            session.bind(mediaView.fitWidthProperty(), Bindings.selectDouble(mediaView.sceneProperty(), "width"));
+            session.bind(mediaView.fitHeightProperty(), Bindings.selectDouble(mediaView.sceneProperty(), "height"));
             mediaView.setPreserveRatio(true);
 
-            // Set up time labels and slider
-            mediaPlayer.currentTimeProperty().addListener((obs, oldTime, newTime) -> {
-                if (!timeSlider.isValueChanging()) {
-                    timeSlider.setValue(newTime.toSeconds());
+            // Time label and slider follow the frame pulse while playing, and each change otherwise
+            shownSecond = -1;
+            shownSliderValue = -1;
+            MediaPlayer player = mediaPlayer;
+            session.addListener(player.statusProperty(), (obs, oldStatus, newStatus) -> {
+                if (newStatus == MediaPlayer.Status.PLAYING) {
+                    refreshLoop.start();
+                } else {
+                    refreshLoop.stop();
+                    refreshPlaybackState();
+                }
+            });
+            boolean[] firstFrameSeen = {false};
+            session.addListener(player.currentTimeProperty(), (obs, oldTime, newTime) -> {
+                if (!firstFrameSeen[0] && player.getStatus() == MediaPlayer.Status.PLAYING) {
+                    firstFrameSeen[0] = true;
+                    firstFrameLatency.recordNanos(System.nanoTime() - openStartNanos);
+                }
+                if (player.getStatus() != MediaPlayer.Status.PLAYING) {
+                    refreshPlaybackState(); // Seeks while paused
                 }
-                currentTimeLabel.setText(formatTime(newTime));
             });
+            session.onDetach(refreshLoop::stop);
+            if (player.getStatus() == MediaPlayer.Status.PLAYING) {
+                refreshLoop.start();
+            }
 
-            mediaPlayer.setOnReady(() -> {
+            Runnable onReady = () -> {
+                StartupTimer.mark(StartupTimer.FIRST_MEDIA_READY);
+                readyLatency.recordNanos(System.nanoTime() - openStartNanos);
                 Duration total = media.getDuration();
                 timeSlider.setMax(total.toSeconds());
                 totalTimeLabel.setText(formatTime(total));
@@ -881,23 +1292,66 @@ public class MainController implements Initializable {
 
                 // Apply saved mute status
                 mediaPlayer.setMute(isMuted);
-            });
+
+                // Audio has no picture, show its spectrum instead
+                if (media.getWidth() <= 0) {
+                    spectrumVisualizer.attach(mediaPlayer);
+                    session.onDetach(spectrumVisualizer::detach);
+                }
+            };
+
+            // A pre-rolled or pooled player is already open and will not fire the event again
+            if (mediaPlayer.getStatus() != MediaPlayer.Status.UNKNOWN) {
+                onReady.run();
+            } else {
+                mediaPlayer.setOnReady(onReady);
+            }
+
+            // A fresh player resumes where this file was left in an earlier session
+            if (pooled == null) {
+                long resumeMillis = settings.getLong(POSITION_PREFIX + file.getAbsolutePath(), -1);
+                if (resumeMillis > 0) {
+                    Duration resumeAt = Duration.millis(resumeMillis);
+                    if (mediaPlayer.getStatus() != MediaPlayer.Status.UNKNOWN) {
+                        seekScheduler.commit(resumeAt);
+                    } else {
+                        session.addListener(player.statusProperty(), (obs, oldStatus, newStatus) -> {
+                            if (oldStatus == MediaPlayer.Status.UNKNOWN && newStatus != MediaPlayer.Status.HALTED) {
+                                seekScheduler.commit(resumeAt);
+                            }
+                        });
+                    }
+                    statusLabel.setText("Resumed at " + formatTime(resumeAt));
+                }
+            }
+
+            // A pooled player resumes where it was left, unless it had played to the end
+            if (pooled != null) {
+                Duration total = mediaPlayer.getTotalDuration();
+                if (total != null && !total.isUnknown()
+                        && total.subtract(mediaPlayer.getCurrentTime()).lessThan(Duration.millis(500))) {
+                    mediaPlayer.seek(Duration.ZERO);
+                }
+            }
 
             // Set up time slider
-            timeSlider.valueChangingProperty().addListener((obs, wasChanging, isChanging) -> {
+            session.addListener(timeSlider.valueChangingProperty(), (obs, wasChanging, isChanging) -> {
                 if (!isChanging) {
-                    mediaPlayer.seek(Duration.seconds(timeSlider.getValue()));
+                    seekScheduler.commit(Duration.seconds(timeSlider.getValue()));
                 }
             });
 
-            timeSlider.valueProperty().addListener((obs, oldValue, newValue) -> {
+            session.addListener(timeSlider.valueProperty(), (obs, oldValue, newValue) -> {
                 if (timeSlider.isValueChanging()) {
-                    mediaPlayer.seek(Duration.seconds(newValue.doubleValue()));
+                    seekScheduler.request(Duration.seconds(newValue.doubleValue()));
                 }
             });
 
             // Auto play next file when done
             mediaPlayer.setOnEndOfMedia(() -> {
+                // Finished files start from the beginning next time
+                settings.remove(POSITION_PREFIX + file.getAbsolutePath());
+                lastPositionSaveNanos = System.nanoTime();
                 if (currentPlaylistIndex < playlist.size() - 1) {
                     currentPlaylistIndex++;
                     playlistView.getSelectionModel().select(currentPlaylistIndex);
@@ -916,23 +1370,77 @@ public class MainController implements Initializable {
             // Select the current item in playlist
             playlistView.getSelectionModel().select(currentPlaylistIndex);
 
-            // Apply current playback speed
-            mediaPlayer.setRate(playbackSpeedSlider.getValue());
+            // Apply current playback speed and equalizer preset
+            mediaPlayer.setRate(playbackRate);
+            EqualizerPresets.apply(equalizerPreset, mediaPlayer.getAudioEqualizer());
 
-            // Auto-detect and load subtitle file with the same name
-            String mediaPath = file.getAbsolutePath();
-            String subtitlePath = mediaPath.substring(0, mediaPath.lastIndexOf('.')) + ".srt";
-            File subtitleFile = new File(subtitlePath);
-            if (subtitleFile.exists()) {
-                loadSubtitleFile(subtitleFile);
+            // Swap in the pre-parsed sidecar subtitle, or auto-detect one with the same name
+            if (prepared != null && prepared.isSubtitlesResolved()) {
+                if (prepared.getSubtitles() != null) {
+                    subtitleManager.showPreloaded(prepared.getSubtitles());
+                }
+            } else {
+                File subtitleFile = SubtitleFormats.findSidecar(file);
+                if (subtitleFile != null) {
+                    loadSubtitleFile(subtitleFile);
+                }
             }
+            setupLatency.recordNanos(System.nanoTime() - openStartNanos);
 
         } catch (Exception e) {
             statusLabel.setText("Error: Unable to play media file");
-            e.printStackTrace();
+            LOG.error("Unable to play {}", file, e);
         }
     }
 
+    /**
+     * Starts pre-rolling the next playlist item once playback is close to the end
+     */
+    private void prerollNextIfNearEnd(Duration currentTime) {
+        if (mediaPlayer == null || currentPlaylistIndex < 0 || currentPlaylistIndex >= playlist.size() - 1) {
+            return;
+        }
+
+        Duration total = mediaPlayer.getTotalDuration();
+        if (total == null || total.isUnknown() || total.isIndefinite()) {
+            return;
+        }
+
+        if (total.subtract(currentTime).lessThan(PREROLL_LEAD_TIME)) {
+            File next = playlist.get(currentPlaylistIndex + 1);
+            if (!prerollStage.isPreparing(next) && !playerPool.contains(next)) {
+                prerollStage.prepare(next);
+            }
+        }
+    }
+
+    /**
+     * Detaches all listeners of the current media and parks its player in the warm pool
+     */
+    private void releasePlaybackSession() {
+        if (playbackSession != null) {
+            saveResumePosition();
+            playbackSession.detach();
+            playerPool.release(currentMediaFile, playbackSession.getMediaPlayer());
+            playbackSession = null;
+        }
+        mediaPlayer = null;
+        currentMediaFile = null;
+    }
+
+    /**
+     * Detaches all listeners of the current media and disposes its player
+     */
+    private void disposePlaybackSession() {
+        if (playbackSession != null) {
+            saveResumePosition();
+            playbackSession.dispose();
+            playbackSession = null;
+        }
+        mediaPlayer = null;
+        currentMediaFile = null;
+    }
+
     @FXML
     private void handlePlayButton() {
         if (mediaPlayer != null) {
@@ -940,8 +1448,8 @@ public class MainController implements Initializable {
             isPlaying = true;
             updatePlayPauseButtons();
         } else if (!playlist.isEmpty()) {
-            // If we have something in the playlist but no media is playing
-            currentPlaylistIndex = 0;
+            // If we have something in the playlist but no media is playing, start at the selected item
+            currentPlaylistIndex = Math.max(0, playlistView.getSelectionModel().getSelectedIndex());
             playMedia(playlist.get(currentPlaylistIndex));
         }
     }
@@ -1015,8 +1523,7 @@ public class MainController implements Initializable {
     private void handleRemoveFromPlaylist() {
         int selectedIndex = playlistView.getSelectionModel().getSelectedIndex();
         if (selectedIndex >= 0 && selectedIndex < playlist.size()) {
-            playlist.remove(selectedIndex);
-            playlistView.getItems().remove(selectedIndex);
+            File removed = playlist.remove(selectedIndex);
 
             // Adjust currentPlaylistIndex if needed
             if (playlist.isEmpty()) {
@@ -1031,13 +1538,67 @@ public class MainController implements Initializable {
             } else if (selectedIndex < currentPlaylistIndex) {
                 currentPlaylistIndex--;
             }
+
+            // A removed item no longer needs a warm player
+            playerPool.remove(removed);
+        }
+    }
+
+    @FXML
+    private void handleLoadPlaylist() {
+        File playlistFile = playlistChooser.showOpenDialog(stage);
+        if (playlistFile != null) {
+            // Entries stream into the playlist through the importer, like dropped files
+            folderImporter.importFiles(List.of(playlistFile));
+        }
+    }
+
+    @FXML
+    private void handleSavePlaylist() {
+        if (playlist.isEmpty()) {
+            statusLabel.setText("Playlist is empty");
+            return;
+        }
+
+        File playlistFile = playlistChooser.showSaveDialog(stage);
+        if (playlistFile == null) {
+            return;
+        }
+        if (!PlaylistIO.isPlaylistFile(playlistFile)) {
+            playlistFile = new File(playlistFile.getPath() + ".m3u8");
+        }
+
+        // Copy what the writer needs, then write off the FX thread
+        List<File> files = new ArrayList<>(playlist.getItems());
+        long[] durations = new long[files.size()];
+        for (int i = 0; i < durations.length; i++) {
+            MetadataCache.Entry entry = metadataCache.get(files.get(i));
+            durations[i] = entry != null ? entry.getDurationMillis() : -1;
         }
+
+        File target = playlistFile;
+        executorService.execute(() -> {
+            try {
+                PlaylistIO.write(target, files, durations);
+                Platform.runLater(() -> statusLabel.setText("Saved playlist: " + target.getName()));
+            } catch (IOException e) {
+                Platform.runLater(() -> statusLabel.setText("Error: Unable to save playlist"));
+                LOG.error("Unable to save playlist {}", target, e);
+            }
+        });
+    }
+
+    @FXML
+    private void handleCancelImport() {
+        folderImporter.cancel();
     }
 
     @FXML
     private void handleClearPlaylist() {
+        folderImporter.cancel();
+        prerollStage.cancel();
+        playerPool.clear();
         playlist.clear();
-        playlistView.getItems().clear();
         stopMedia();
         currentPlaylistIndex = -1;
     }
@@ -1045,43 +1606,100 @@ public class MainController implements Initializable {
     @FXML
     private void handleAboutButton() {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/clipphy/mediaplayer/fxml/about-view.fxml"));
-            Parent root = loader.load();
+            if (aboutStage == null) {
+                aboutStage = FxWatchdog.call("Loading the About dialog", this::createAboutStage);
+            }
 
-            // Get the AboutController instance
-            AboutController aboutController = loader.getController();
+            // Follow the theme chosen since the dialog was last shown
+            aboutStage.getScene().getStylesheets().setAll(ThemeAssets.stylesheet(currentTheme));
+            aboutStage.showAndWait();
+        } catch (IOException e) {
+            LOG.error("Unable to open the About dialog", e);
+        }
+    }
 
-            Stage aboutStage = new Stage();
-            aboutStage.initModality(Modality.APPLICATION_MODAL);
-            aboutStage.initStyle(StageStyle.DECORATED);
-            aboutStage.setTitle("About TA Media Player");
-            Scene scene = new Scene(root);
-            scene.getStylesheets().add(getClass().getResource("/com/clipphy/mediaplayer/css/" + currentTheme).toExternalForm());
-            aboutStage.setScene(scene);
-            aboutStage.setResizable(false);
+    /**
+     * Loads the About view in the background so the first click only has to show it
+     */
+    private void prewarmAboutView() {
+        if (aboutView == null && executorService != null) {
+            aboutView = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return loadView("about-view.fxml");
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executorService);
+        }
+    }
 
-            // Set the title bar icon
-            aboutController.setStageIcon(aboutStage);
+    private FXMLLoader loadView(String fileName) throws IOException {
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/clipphy/mediaplayer/fxml/" + fileName));
+        loader.load();
+        return loader;
+    }
 
-            aboutStage.showAndWait();
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * Builds the About dialog once, from the prewarmed view if it is ready or being loaded
+     */
+    private Stage createAboutStage() throws IOException {
+        FXMLLoader loader;
+        if (aboutView != null) {
+            try {
+                loader = aboutView.join();
+            } catch (CompletionException e) {
+                LOG.warn("Could not prepare the About view: {}", e.getCause().getMessage());
+                loader = loadView("about-view.fxml");
+            }
+        } else {
+            loader = loadView("about-view.fxml");
         }
+
+        // Get the AboutController instance
+        AboutController aboutController = loader.getController();
+
+        Stage dialog = new Stage();
+        dialog.initModality(Modality.APPLICATION_MODAL);
+        dialog.initStyle(StageStyle.DECORATED);
+        dialog.setTitle("About TA Media Player");
+        Parent root = loader.getRoot();
+        dialog.setScene(new Scene(root));
+        dialog.setResizable(false);
+
+        // Set the title bar icon
+        aboutController.setStageIcon(dialog);
+        return dialog;
     }
 
     @FXML
     private void handleExitButton() {
-        if (mediaPlayer != null) {
-            mediaPlayer.stop();
-            mediaPlayer.dispose();
+        shutdown();
+        Platform.exit();
+    }
+
+    /**
+     * Saves the queue, settings and caches and releases the players. Runs however
+     * the player is closed: the Exit button, the window's close button or the
+     * platform exiting. Only the first call does anything.
+     */
+    public void shutdown() {
+        if (shutDown) {
+            return;
         }
+        shutDown = true;
+
+        folderImporter.cancel();
+        saveQueue();
+        metadataCache.close();
+        prerollStage.cancel();
+        disposePlaybackSession();
+        playerPool.clear();
+        settings.close();
 
         // Shut down executor service
         if (executorService != null) {
             executorService.shutdown();
         }
-
-        Platform.exit();
     }
 
     @FXML
@@ -1156,6 +1774,7 @@ public class MainController implements Initializable {
         if (mediaPlayer != null) {
             isMuted = !isMuted;
             mediaPlayer.setMute(isMuted);
+            settings.put(PREF_MUTED, isMuted);
             
             // Update mute button icon
             themeIcon.setText(isMuted ? "☾" : "☀");
@@ -1198,15 +1817,195 @@ public class MainController implements Initializable {
     }
 
     private String formatTime(Duration time) {
-        int hours = (int) time.toHours();
-        int minutes = (int) time.toMinutes() % 60;
-        int seconds = (int) time.toSeconds() % 60;
+        return timeFormatter.format(time);
+    }
+
+    /**
+     * Samples the player once and updates only what changed: the slider when the
+     * thumb would move by at least half a pixel, the time label and the once-a-second
+     * checks when the whole second changes.
+     */
+    private void refreshPlaybackState() {
+        if (mediaPlayer == null) {
+            return;
+        }
+
+        Duration time = mediaPlayer.getCurrentTime();
+        double seconds = time.toSeconds();
+
+        double halfPixel = timeSlider.getWidth() > 0 ? timeSlider.getMax() / timeSlider.getWidth() / 2 : 0;
+        if (!timeSlider.isValueChanging() && Math.abs(seconds - shownSliderValue) >= halfPixel) {
+            shownSliderValue = seconds;
+            timeSlider.setValue(seconds);
+        }
+
+        int wholeSeconds = (int) seconds;
+        if (wholeSeconds == shownSecond) {
+            return;
+        }
+        shownSecond = wholeSeconds;
+        currentTimeLabel.setText(timeFormatter.format(wholeSeconds));
+
+        // Open the next item shortly before this one ends
+        prerollNextIfNearEnd(time);
+
+        // Remember the position now and then, in case the player is not closed cleanly
+        long now = System.nanoTime();
+        if (now - lastPositionSaveNanos > POSITION_SAVE_INTERVAL_NANOS) {
+            lastPositionSaveNanos = now;
+            saveResumePosition();
+        }
+    }
+
+    /**
+     * Applies the stored preferences once the settings store has been read
+     */
+    private void restoreSettings() {
+        volumeSlider.setValue(settings.getDouble(PREF_VOLUME, currentVolume) * 100);
+        changePlaybackRate(settings.getDouble(PREF_RATE, playbackRate));
+        changeEqualizerPreset(settings.getString(PREF_EQUALIZER, equalizerPreset));
+
+        isMuted = settings.getBoolean(PREF_MUTED, isMuted);
+        if (mediaPlayer != null) {
+            mediaPlayer.setMute(isMuted);
+        }
+
+        String theme = settings.getString(PREF_THEME, currentTheme);
+        if (theme.equals("light-theme.css") || theme.equals("dark-theme.css")) {
+            applyTheme(theme);
+        }
+    }
+
+    /**
+     * Stores the position of the current media so it can resume there later.
+     * Positions near the start or the end are dropped instead.
+     */
+    private void saveResumePosition() {
+        if (mediaPlayer == null || currentMediaFile == null) {
+            return;
+        }
 
-        if (hours > 0) {
-            return String.format("%d:%02d:%02d", hours, minutes, seconds);
+        String key = POSITION_PREFIX + currentMediaFile.getAbsolutePath();
+        Duration position = mediaPlayer.getCurrentTime();
+        Duration total = mediaPlayer.getTotalDuration();
+        if (position == null || total == null || total.isUnknown() || total.isIndefinite()) {
+            return;
+        }
+
+        if (position.lessThan(RESUME_MARGIN) || total.subtract(position).lessThan(RESUME_MARGIN)) {
+            settings.remove(key);
+        } else {
+            settings.put(key, (long) position.toMillis());
+        }
+    }
+
+    /**
+     * Loads the queue saved when the player was last closed, selecting the item that was playing
+     */
+    private void restoreQueue() {
+        executorService.execute(() -> {
+            if (!Files.exists(QUEUE_SNAPSHOT)) {
+                queueRestored = true;
+                return;
+            }
+            try {
+                PlaylistIO.Snapshot snapshot = PlaylistIO.readSnapshot(QUEUE_SNAPSHOT);
+                Platform.runLater(() -> applyQueueSnapshot(snapshot));
+            } catch (IOException e) {
+                LOG.warn("Could not restore the playlist: {}", e.getMessage());
+                queueRestored = true;
+            }
+        });
+    }
+
+    /**
+     * Puts the restored queue in place, unless files were queued while it was being read
+     */
+    private void applyQueueSnapshot(PlaylistIO.Snapshot snapshot) {
+        queueRestored = true;
+        List<File> files = Arrays.asList(snapshot.getFiles());
+        if (!playlist.isEmpty()) {
+            // Keep what the user queued first and the position they are at
+            playlist.addAll(files);
+            return;
+        }
+
+        playlist.setAll(files);
+        int index = snapshot.getCurrentIndex();
+        if (index >= 0 && index < playlist.size()) {
+            currentPlaylistIndex = index;
+            playlistView.getSelectionModel().select(index);
+            playlistView.scrollTo(index);
+        }
+    }
+
+    /**
+     * Saves the queue so the next session starts where this one ended
+     */
+    private void saveQueue() {
+        if (!queueRestored) {
+            return;
+        }
+        try {
+            PlaylistIO.writeSnapshot(QUEUE_SNAPSHOT, playlist.getItems(), currentPlaylistIndex);
+        } catch (IOException e) {
+            LOG.warn("Could not save the playlist: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Adds (sign 1) or removes (sign -1) a playlist item from the running total
+     */
+    private void countPlaylistDuration(File file, int sign) {
+        MetadataCache.Entry entry = metadataCache.get(file);
+        if (entry == null) {
+            playlistPendingCount += sign;
+        } else if (entry.getDurationMillis() >= 0) {
+            playlistKnownMillis += sign * entry.getDurationMillis();
         } else {
-            return String.format("%02d:%02d", minutes, seconds);
+            playlistUnknownCount += sign;
+        }
+    }
+
+    /**
+     * Moves newly probed playlist items out of the pending count, into the running total
+     * or the unknown count, and redraws their cells
+     */
+    private void onMetadataUpdated(List<File> files) {
+        boolean changed = false;
+        for (File file : files) {
+            if (!playlist.contains(file)) {
+                continue;
+            }
+            MetadataCache.Entry entry = metadataCache.get(file);
+            playlistPendingCount--;
+            if (entry.getDurationMillis() >= 0) {
+                playlistKnownMillis += entry.getDurationMillis();
+            } else {
+                playlistUnknownCount++;
+            }
+            changed = true;
+        }
+        if (changed) {
+            playlistView.refresh();
+            updatePlaylistSummary();
+        }
+    }
+
+    private void updatePlaylistSummary() {
+        int count = playlist.size();
+        if (count == 0) {
+            playlistSummaryLabel.setText("");
+            return;
+        }
+
+        String total = formatTime(Duration.millis(playlistKnownMillis));
+        if (playlistPendingCount > 0) {
+            total += "+ (" + playlistPendingCount + " pending)";
+        } else if (playlistUnknownCount > 0) {
+            total += "+ (" + playlistUnknownCount + " unknown)";
         }
+        playlistSummaryLabel.setText(count + (count == 1 ? " item, " : " items, ") + total);
     }
 
     private boolean isMediaFile(File file) {
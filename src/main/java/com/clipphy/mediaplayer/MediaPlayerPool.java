@@ -0,0 +1,157 @@
+package com.clipphy.mediaplayer;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+
+/**
+ * Keeps recently used media players open so switching back to them is instant.
+ * Only players that have finished preparing are kept; they are paused, not
+ * disposed, when released and are evicted least recently used first once either
+ * the player count or the estimated memory cap is exceeded.
+ * All methods must be called on the FX thread.
+ */
+public class MediaPlayerPool {
+
+    // Rough cost of an open player: demuxer, audio pipeline and decoder state
+    private static final long BASE_PLAYER_BYTES = 8L * 1024 * 1024;
+
+    // Decoded video frames a player typically keeps buffered
+    private static final int BUFFERED_FRAMES = 4;
+
+    private final int maxPlayers;
+    private final long maxBytes;
+    private final LinkedHashMap<File, Entry> players = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes = 0;
+
+    /**
+     * @param maxPlayers The maximum number of idle players kept open
+     * @param maxBytes The estimated memory the idle players may use together
+     */
+    public MediaPlayerPool(int maxPlayers, long maxBytes) {
+        this.maxPlayers = maxPlayers;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Takes the idle player for a file out of the pool.
+     *
+     * @return The player, or null if none is pooled or it can no longer play
+     */
+    public MediaPlayer acquire(File file) {
+        Entry entry = players.remove(file);
+        if (entry == null) {
+            return null;
+        }
+        usedBytes -= entry.bytes;
+
+        MediaPlayer player = entry.player;
+        MediaPlayer.Status status = player.getStatus();
+        if (status == MediaPlayer.Status.HALTED || status == MediaPlayer.Status.DISPOSED) {
+            player.dispose();
+            return null;
+        }
+        return player;
+    }
+
+    /**
+     * Returns a player to the pool, paused at its current position. Players that
+     * are not ready yet, stalled or broken are disposed instead.
+     * Evicts the least recently used players if the pool is over its limits.
+     */
+    public void release(File file, MediaPlayer player) {
+        if (maxPlayers <= 0 || !isReady(player.getStatus())) {
+            Entry stale = players.get(file);
+            if (stale != null && stale.player == player) {
+                players.remove(file);
+                usedBytes -= stale.bytes;
+            }
+            player.dispose();
+            return;
+        }
+
+        player.pause();
+        // The size is fixed when the player goes in, so taking it out subtracts exactly what was added
+        Entry entry = new Entry(player, estimateBytes(player));
+        Entry previous = players.put(file, entry);
+        if (previous != null) {
+            usedBytes -= previous.bytes;
+            if (previous.player != player) {
+                previous.player.dispose();
+            }
+        }
+        usedBytes += entry.bytes;
+        trim();
+    }
+
+    /**
+     * A playing player counts as ready, since it is paused on the way in.
+     */
+    private static boolean isReady(MediaPlayer.Status status) {
+        return status == MediaPlayer.Status.READY
+                || status == MediaPlayer.Status.PAUSED
+                || status == MediaPlayer.Status.PLAYING;
+    }
+
+    public boolean contains(File file) {
+        return players.containsKey(file);
+    }
+
+    /**
+     * Disposes the pooled player for a file, if any.
+     */
+    public void remove(File file) {
+        Entry entry = players.remove(file);
+        if (entry != null) {
+            usedBytes -= entry.bytes;
+            entry.player.dispose();
+        }
+    }
+
+    /**
+     * Disposes every pooled player.
+     */
+    public void clear() {
+        for (Entry entry : players.values()) {
+            entry.player.dispose();
+        }
+        players.clear();
+        usedBytes = 0;
+    }
+
+    private void trim() {
+        Iterator<Entry> eldest = players.values().iterator();
+        while ((players.size() > maxPlayers || usedBytes > maxBytes) && eldest.hasNext()) {
+            Entry entry = eldest.next();
+            eldest.remove();
+            usedBytes -= entry.bytes;
+            entry.player.dispose();
+        }
+    }
+
+    /**
+     * Estimates the memory held by an open player from its video resolution.
+     */
+    private static long estimateBytes(MediaPlayer player) {
+        Media media = player.getMedia();
+        long frameBytes = (long) media.getWidth() * media.getHeight() * 4;
+        return BASE_PLAYER_BYTES + frameBytes * BUFFERED_FRAMES;
+    }
+
+    /**
+     * A pooled player with the size it was counted at when it was added.
+     */
+    private static final class Entry {
+
+        final MediaPlayer player;
+        final long bytes;
+
+        Entry(MediaPlayer player, long bytes) {
+            this.player = player;
+            this.bytes = bytes;
+        }
+    }
+}
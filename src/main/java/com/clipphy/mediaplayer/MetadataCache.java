@@ -0,0 +1,451 @@
+package com.clipphy.mediaplayer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+
+/**
+ * Remembers duration, title, artist and resolution of media files across runs.
+ * Entries are keyed by path, size and modification time, so a changed file is
+ * probed again. Unknown files are opened by a small fixed set of background
+ * workers, which bounds how many probe players are open at once; the UI never
+ * opens a file just to learn its length. Files that cannot be opened resolve to
+ * an unprobed entry, so callers stop waiting for them; those are not stored and
+ * are tried again next run. The most recently used entries are kept, up to a
+ * fixed number. Changes are written back to disk a moment after they happen
+ * rather than on every probe.
+ */
+public class MetadataCache {
+
+    private static final Log LOG = Log.forClass(MetadataCache.class);
+
+    /**
+     * Metadata of one media file.
+     */
+    public static class Entry {
+        private final long size;
+        private final long modified;
+        private final long durationMillis;
+        private final String title;
+        private final String artist;
+        private final int width;
+        private final int height;
+        private final boolean probed;
+
+        Entry(long size, long modified, long durationMillis, String title, String artist, int width, int height) {
+            this(size, modified, durationMillis, title, artist, width, height, true);
+        }
+
+        private Entry(long size, long modified, long durationMillis, String title, String artist,
+                int width, int height, boolean probed) {
+            this.size = size;
+            this.modified = modified;
+            this.durationMillis = durationMillis;
+            this.title = title;
+            this.artist = artist;
+            this.width = width;
+            this.height = height;
+            this.probed = probed;
+        }
+
+        /**
+         * An entry for a file that could not be opened or did not open in time.
+         */
+        static Entry unprobed(long size, long modified) {
+            return new Entry(size, modified, -1, "", "", 0, 0, false);
+        }
+
+        /**
+         * @return The duration in milliseconds, or -1 if the file has no known length
+         */
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getArtist() {
+            return artist;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * @return False if the file could not be read, so nothing but its name is known
+         */
+        public boolean isProbed() {
+            return probed;
+        }
+
+        boolean matches(long size, long modified) {
+            return this.size == size && this.modified == modified;
+        }
+    }
+
+    private static final int FILE_MAGIC = 0x54414d43; // "TAMC"
+    private static final int FILE_VERSION = 1;
+
+    // Entries kept in memory and on disk; the least recently used go first
+    private static final int MAX_STORED_ENTRIES = 50_000;
+
+    // Give up on a file that does not open within this time
+    private static final long PROBE_TIMEOUT_SECONDS = 10;
+
+    // Write changes back this long after the first one
+    private static final long SAVE_DELAY_SECONDS = 3;
+
+    private final Path cacheFile;
+    private final int probeWorkers;
+    private final Consumer<List<File>> onUpdated;
+
+    // Entries confirmed against the file on disk in this run, only touched on the FX thread
+    private final Map<File, Entry> entries = new HashMap<>();
+    // Entries read from the cache file or probed, in order of last use; guarded by itself
+    private final LinkedHashMap<String, Entry> stored = new LinkedHashMap<>(1024, 0.75f, true);
+    private final AtomicBoolean loaded = new AtomicBoolean();
+
+    private final LinkedBlockingDeque<File> queue = new LinkedBlockingDeque<>();
+    private final Set<File> requested = ConcurrentHashMap.newKeySet();
+    private final Set<File> started = ConcurrentHashMap.newKeySet();
+    // Files moved to the front once already; later urgent requests leave them where they are
+    private final Set<File> promoted = ConcurrentHashMap.newKeySet();
+    private final List<Thread> workers = new ArrayList<>();
+
+    // Resolved entries waiting to be handed to the FX thread in one go
+    private final ConcurrentLinkedQueue<Map.Entry<File, Entry>> updates = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean updatePosted = new AtomicBoolean();
+
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "metadata-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
+    private volatile boolean dirty = false;
+
+    /**
+     * @param cacheFile Where the cache is kept between runs
+     * @param probeWorkers How many files may be probed at the same time
+     * @param onUpdated Receives files whose metadata became available, on the FX thread
+     */
+    public MetadataCache(Path cacheFile, int probeWorkers, Consumer<List<File>> onUpdated) {
+        this.cacheFile = cacheFile;
+        this.probeWorkers = probeWorkers;
+        this.onUpdated = onUpdated;
+    }
+
+    /**
+     * Starts the probe workers, which also read the cache file. Requests made
+     * before this wait in the queue. Safe to call more than once.
+     */
+    public void start() {
+        if (!workers.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < probeWorkers; i++) {
+            Thread worker = new Thread(this::runWorker, "metadata-probe-" + (i + 1));
+            worker.setDaemon(true);
+            worker.setPriority(Thread.MIN_PRIORITY);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Returns the metadata of a file if it is known, without touching the disk.
+     * This and the other public methods must be called on the FX thread.
+     */
+    public Entry get(File file) {
+        return entries.get(file);
+    }
+
+    /**
+     * Queues a file to be looked up. Urgent requests, such as items scrolled
+     * into view, jump ahead of the rest of the queue. A file that is already
+     * queued is moved to the front at most once, and one that is being looked
+     * up is left alone, so repeated requests do not pile up in the queue.
+     */
+    public void request(File file, boolean urgent) {
+        if (entries.containsKey(file)) {
+            return;
+        }
+        if (requested.add(file)) {
+            if (urgent) {
+                promoted.add(file);
+                queue.addFirst(file);
+            } else {
+                queue.addLast(file);
+            }
+        } else if (urgent && !started.contains(file) && promoted.add(file)) {
+            // Already queued further back; the later copy is skipped
+            queue.addFirst(file);
+        }
+    }
+
+    /**
+     * Drops every request that has not started yet.
+     */
+    public void cancelPending() {
+        queue.clear();
+        requested.retainAll(started);
+        promoted.clear();
+    }
+
+    /**
+     * Stops the workers and writes outstanding changes to disk.
+     */
+    public void close() {
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        writer.shutdownNow();
+        if (dirty) {
+            save();
+        }
+    }
+
+    private void runWorker() {
+        try {
+            ensureLoaded();
+            while (!Thread.currentThread().isInterrupted()) {
+                File file = queue.takeFirst();
+                if (!started.add(file)) {
+                    continue;
+                }
+                resolve(file);
+            }
+        } catch (InterruptedException e) {
+            // Shutting down
+        }
+    }
+
+    /**
+     * Validates a stored entry against the file, or probes the file if there is none.
+     */
+    private void resolve(File file) throws InterruptedException {
+        long size = file.length();
+        long modified = file.lastModified();
+        Entry entry;
+        if (modified == 0) {
+            entry = Entry.unprobed(size, modified); // Missing or unreadable
+        } else {
+            String path = file.getAbsolutePath();
+            synchronized (stored) {
+                entry = stored.get(path);
+            }
+            if (entry == null || !entry.matches(size, modified)) {
+                entry = probe(file, size, modified);
+                if (entry != null) {
+                    store(path, entry);
+                    markDirty();
+                } else {
+                    // Settled for this run, so nobody keeps waiting for it
+                    entry = Entry.unprobed(size, modified);
+                }
+            }
+        }
+
+        updates.add(new AbstractMap.SimpleImmutableEntry<>(file, entry));
+        if (updatePosted.compareAndSet(false, true)) {
+            Platform.runLater(this::deliverUpdates);
+        }
+    }
+
+    /**
+     * Opens a file in a throwaway player and reads its metadata once it is ready.
+     */
+    private Entry probe(File file, long size, long modified) throws InterruptedException {
+        MediaPlayer player = null;
+        try {
+            Media media = new Media(file.toURI().toString());
+            player = new MediaPlayer(media);
+            CountDownLatch ready = new CountDownLatch(1);
+            AtomicBoolean ok = new AtomicBoolean();
+            player.setOnReady(() -> {
+                ok.set(true);
+                ready.countDown();
+            });
+            player.setOnError(ready::countDown);
+
+            if (!ready.await(PROBE_TIMEOUT_SECONDS, TimeUnit.SECONDS) || !ok.get()) {
+                LOG.warn("Could not read metadata of {}", file.getName());
+                return null;
+            }
+
+            javafx.util.Duration duration = media.getDuration();
+            long durationMillis = duration == null || duration.isUnknown() || duration.isIndefinite()
+                    ? -1 : (long) duration.toMillis();
+            return new Entry(size, modified, durationMillis,
+                    metadataString(media, "title"), metadataString(media, "artist"),
+                    media.getWidth(), media.getHeight());
+        } catch (RuntimeException e) {
+            LOG.warn("Could not read metadata of {}: {}", file.getName(), e.getMessage());
+            return null;
+        } finally {
+            if (player != null) {
+                player.dispose();
+            }
+        }
+    }
+
+    private static String metadataString(Media media, String key) {
+        Object value = media.getMetadata().get(key);
+        return value instanceof String ? (String) value : "";
+    }
+
+    private void deliverUpdates() {
+        updatePosted.set(false);
+        List<File> batch = new ArrayList<>();
+        Map.Entry<File, Entry> update;
+        while ((update = updates.poll()) != null) {
+            if (entries.putIfAbsent(update.getKey(), update.getValue()) == null) {
+                batch.add(update.getKey());
+            }
+        }
+        if (!batch.isEmpty()) {
+            onUpdated.accept(batch);
+        }
+    }
+
+    private void markDirty() {
+        dirty = true;
+        if (saveScheduled.compareAndSet(false, true)) {
+            try {
+                writer.schedule(() -> {
+                    saveScheduled.set(false);
+                    save();
+                }, SAVE_DELAY_SECONDS, TimeUnit.SECONDS);
+            } catch (RuntimeException e) {
+                saveScheduled.set(false); // Writer already shut down, close() saves instead
+            }
+        }
+    }
+
+    /**
+     * Adds or replaces a stored entry as the most recently used, evicting the least recently used past the limit.
+     */
+    private void store(String path, Entry entry) {
+        synchronized (stored) {
+            stored.put(path, entry);
+            if (stored.size() > MAX_STORED_ENTRIES) {
+                Iterator<String> eldest = stored.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    private int storedCount() {
+        synchronized (stored) {
+            return stored.size();
+        }
+    }
+
+    /**
+     * Reads the cache file once, before the first lookup.
+     */
+    private void ensureLoaded() {
+        synchronized (loaded) {
+            if (loaded.get()) {
+                return;
+            }
+            loaded.set(true);
+
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+                if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                    return; // Unknown format, start over
+                }
+                // Written least recently used first, so reading in order restores the order of use
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    String path = in.readUTF();
+                    Entry entry = new Entry(in.readLong(), in.readLong(), in.readLong(),
+                            in.readUTF(), in.readUTF(), in.readInt(), in.readInt());
+                    store(path, entry);
+                }
+            } catch (NoSuchFileException e) {
+                // First run
+            } catch (EOFException e) {
+                LOG.warn("Metadata cache is truncated, keeping {} entries", storedCount());
+            } catch (IOException e) {
+                LOG.warn("Could not read metadata cache: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes all entries to a temporary file and swaps it in, so a crash never leaves a half-written cache.
+     */
+    private synchronized void save() {
+        dirty = false;
+        List<Map.Entry<String, Entry>> snapshot = new ArrayList<>();
+        synchronized (stored) {
+            for (Map.Entry<String, Entry> entry : stored.entrySet()) {
+                snapshot.add(new AbstractMap.SimpleImmutableEntry<>(entry));
+            }
+        }
+        int count = snapshot.size();
+
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            Path temp = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeInt(FILE_VERSION);
+                out.writeInt(count);
+                for (int i = 0; i < count; i++) {
+                    String path = snapshot.get(i).getKey();
+                    Entry entry = snapshot.get(i).getValue();
+                    out.writeUTF(path);
+                    out.writeLong(entry.size);
+                    out.writeLong(entry.modified);
+                    out.writeLong(entry.durationMillis);
+                    out.writeUTF(entry.title);
+                    out.writeUTF(entry.artist);
+                    out.writeInt(entry.width);
+                    out.writeInt(entry.height);
+                }
+            }
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Could not write metadata cache: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.clipphy.mediaplayer;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+/**
+ * Named counters, gauges and latency histograms for the playback paths.
+ * Metrics are created on first use and live for the whole run; recording is
+ * lock-free and safe from any thread. The registry is published over JMX as
+ * one MBean whose attributes are the metrics, histograms expanded into count,
+ * mean, percentiles and max in microseconds.
+ */
+public final class MetricsRegistry {
+
+    private static final Log LOG = Log.forClass(MetricsRegistry.class);
+
+    public static final String OBJECT_NAME = "com.clipphy.mediaplayer:type=PlaybackMetrics";
+
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    // Sorted by name so the overlay and JMX list related metrics together
+    private final Map<String, Object> metrics = new ConcurrentSkipListMap<>();
+
+    /**
+     * Returns the registry shared by the whole player.
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public Counter counter(String name) {
+        return (Counter) metrics.computeIfAbsent(name, key -> new Counter());
+    }
+
+    public LatencyHistogram histogram(String name) {
+        return (LatencyHistogram) metrics.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Registers a value that is read whenever the metrics are shown. Replaces an earlier gauge of the same name.
+     */
+    public void gauge(String name, LongSupplier value) {
+        metrics.put(name, value);
+    }
+
+    /**
+     * Publishes the registry with the platform MBean server. Safe to call more than once.
+     */
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new Bean(), name);
+            }
+        } catch (JMException e) {
+            LOG.warn("Could not publish metrics over JMX: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Formats every metric on its own line, for the stats overlay.
+     */
+    public String format() {
+        StringBuilder text = new StringBuilder(1024);
+        for (Map.Entry<String, Object> metric : metrics.entrySet()) {
+            if (text.length() > 0) {
+                text.append('\n');
+            }
+            text.append(metric.getKey()).append(": ");
+            Object value = metric.getValue();
+            if (value instanceof LatencyHistogram) {
+                LatencyHistogram histogram = (LatencyHistogram) value;
+                text.append("n=").append(histogram.getCount()).append(" p50 ").append(formatMicros(histogram.getPercentileMicros(50)))
+                        .append(" p99 ").append(formatMicros(histogram.getPercentileMicros(99)))
+                        .append(" max ").append(formatMicros(histogram.getMaxMicros()));
+            } else {
+                text.append(valueOf(value));
+            }
+        }
+        return text.toString();
+    }
+
+    private static String formatMicros(long micros) {
+        if (micros < 1000) {
+            return micros + " µs";
+        }
+        if (micros < 10_000_000) {
+            return String.format("%.1f ms", micros / 1000.0);
+        }
+        return String.format("%.1f s", micros / 1_000_000.0);
+    }
+
+    private static long valueOf(Object metric) {
+        return metric instanceof Counter ? ((Counter) metric).get() : ((LongSupplier) metric).getAsLong();
+    }
+
+    /**
+     * A count that only goes up.
+     */
+    public static final class Counter {
+
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * Exposes the metrics as read-only attributes. The attribute list is rebuilt
+     * on every request, so metrics created after registration show up too.
+     */
+    private final class Bean implements DynamicMBean {
+
+        private static final String[] HISTOGRAM_FIELDS = {"count", "meanMicros", "p50Micros", "p90Micros", "p99Micros", "maxMicros"};
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Object metric = metrics.get(attribute);
+            if (metric != null && !(metric instanceof LatencyHistogram)) {
+                return valueOf(metric);
+            }
+
+            int dot = attribute.lastIndexOf('.');
+            Object histogram = dot > 0 ? metrics.get(attribute.substring(0, dot)) : null;
+            if (histogram instanceof LatencyHistogram) {
+                LatencyHistogram latencies = (LatencyHistogram) histogram;
+                switch (attribute.substring(dot + 1)) {
+                    case "count":
+                        return latencies.getCount();
+                    case "meanMicros":
+                        return latencies.getMeanMicros();
+                    case "p50Micros":
+                        return latencies.getPercentileMicros(50);
+                    case "p90Micros":
+                        return latencies.getPercentileMicros(90);
+                    case "p99Micros":
+                        return latencies.getPercentileMicros(99);
+                    case "maxMicros":
+                        return latencies.getMaxMicros();
+                    default:
+                        break;
+                }
+            }
+            throw new AttributeNotFoundException(attribute);
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            AttributeList values = new AttributeList();
+            for (String attribute : attributes) {
+                try {
+                    values.add(new Attribute(attribute, getAttribute(attribute)));
+                } catch (AttributeNotFoundException e) {
+                    // Skipped, as the interface allows
+                }
+            }
+            return values;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+            throw new ReflectionException(new NoSuchMethodException(actionName));
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+            for (Map.Entry<String, Object> metric : metrics.entrySet()) {
+                if (metric.getValue() instanceof LatencyHistogram) {
+                    for (String field : HISTOGRAM_FIELDS) {
+                        attributes.add(new MBeanAttributeInfo(metric.getKey() + "." + field, "long",
+                                "Latency of " + metric.getKey(), true, false, false));
+                    }
+                } else {
+                    attributes.add(new MBeanAttributeInfo(metric.getKey(), "long",
+                            metric.getValue() instanceof Counter ? "Counter" : "Gauge", true, false, false));
+                }
+            }
+            return new MBeanInfo(MetricsRegistry.class.getName(), "Playback metrics of TA Media Player",
+                    attributes.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[0], null);
+        }
+    }
+}
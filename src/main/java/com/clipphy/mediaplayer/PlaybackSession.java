@@ -0,0 +1,113 @@
+package com.clipphy.mediaplayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javafx.beans.binding.Binding;
+import javafx.beans.property.Property;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.media.MediaPlayer;
+
+/**
+ * Owns everything wired up for one MediaPlayer: listeners on the player and on
+ * shared controls, property bindings and player callbacks. Tearing the session
+ * down removes all of them, so switching media never leaves stale listeners
+ * behind that still reference an old player.
+ */
+public class PlaybackSession {
+
+    // Listeners and bindings registered by all sessions that are not detached yet
+    private static final AtomicInteger liveListeners = new AtomicInteger();
+
+    private final MediaPlayer mediaPlayer;
+    private final List<Runnable> cleanups = new ArrayList<>();
+    private boolean detached = false;
+    private int listenerCount = 0;
+
+    public PlaybackSession(MediaPlayer mediaPlayer) {
+        this.mediaPlayer = mediaPlayer;
+
+        // Player callbacks capture the controller, clear them with everything else
+        onDetach(() -> {
+            mediaPlayer.setOnReady(null);
+            mediaPlayer.setOnEndOfMedia(null);
+            mediaPlayer.setOnError(null);
+        });
+    }
+
+    public MediaPlayer getMediaPlayer() {
+        return mediaPlayer;
+    }
+
+    /**
+     * Adds a change listener that is removed when the session is detached.
+     */
+    public <T> void addListener(ObservableValue<T> observable, ChangeListener<? super T> listener) {
+        observable.addListener(listener);
+        cleanups.add(() -> observable.removeListener(listener));
+        countListener();
+    }
+
+    /**
+     * Binds a property for the lifetime of the session.
+     * If the source is a Binding it is disposed along with the session.
+     */
+    public <T> void bind(Property<T> property, ObservableValue<? extends T> source) {
+        property.bind(source);
+        cleanups.add(() -> {
+            property.unbind();
+            if (source instanceof Binding) {
+                ((Binding<?>) source).dispose();
+            }
+        });
+        countListener();
+    }
+
+    /**
+     * Registers an action to run when the session is detached.
+     */
+    public void onDetach(Runnable cleanup) {
+        cleanups.add(cleanup);
+    }
+
+    /**
+     * Removes every listener, binding and callback registered with this session,
+     * in reverse order of registration. The player itself is left untouched.
+     */
+    public void detach() {
+        if (detached) {
+            return;
+        }
+        detached = true;
+
+        for (int i = cleanups.size() - 1; i >= 0; i--) {
+            cleanups.get(i).run();
+        }
+        cleanups.clear();
+        liveListeners.addAndGet(-listenerCount);
+        listenerCount = 0;
+    }
+
+    /**
+     * Returns how many listeners and bindings all live sessions hold. Safe to call from any thread.
+     */
+    public static int getLiveListenerCount() {
+        return liveListeners.get();
+    }
+
+    private void countListener() {
+        listenerCount++;
+        liveListeners.incrementAndGet();
+    }
+
+    /**
+     * Detaches the session, then stops and disposes its player.
+     */
+    public void dispose() {
+        detach();
+        mediaPlayer.stop();
+        mediaPlayer.dispose();
+    }
+}
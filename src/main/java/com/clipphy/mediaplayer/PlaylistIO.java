@@ -0,0 +1,294 @@
+package com.clipphy.mediaplayer;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads and writes playlists. M3U, M3U8 and PLS files are parsed line by line
+ * and each entry is handed to a sink as soon as it is read, so a large playlist
+ * never sits in memory as a whole. The native snapshot format stores paths with
+ * the prefix they share with the previous path left out, which keeps a queue of
+ * files from the same folders small and lets it load in one pass.
+ */
+public final class PlaylistIO {
+
+    public static final String SNAPSHOT_EXTENSION = ".tapl";
+
+    private static final int SNAPSHOT_MAGIC = 0x5441504c; // "TAPL"
+    private static final int SNAPSHOT_VERSION = 1;
+
+    /**
+     * A loaded snapshot: the queued files and the item that was playing.
+     */
+    public static class Snapshot {
+        private final File[] files;
+        private final int currentIndex;
+
+        Snapshot(File[] files, int currentIndex) {
+            this.files = files;
+            this.currentIndex = currentIndex;
+        }
+
+        public File[] getFiles() {
+            return files;
+        }
+
+        public int getCurrentIndex() {
+            return currentIndex;
+        }
+    }
+
+    private PlaylistIO() {
+    }
+
+    /**
+     * Checks by name whether a file is a playlist this class can read.
+     */
+    public static boolean isPlaylistFile(File file) {
+        String name = file.getName().toLowerCase();
+        return name.endsWith(".m3u") || name.endsWith(".m3u8") || name.endsWith(".pls") || name.endsWith(SNAPSHOT_EXTENSION);
+    }
+
+    /**
+     * Streams the entries of a playlist file to the sink, in order.
+     * Relative paths are resolved against the folder of the playlist.
+     */
+    public static void read(File playlistFile, Consumer<File> sink) throws IOException {
+        String name = playlistFile.getName().toLowerCase();
+        if (name.endsWith(SNAPSHOT_EXTENSION)) {
+            for (File file : readSnapshot(playlistFile.toPath()).getFiles()) {
+                sink.accept(file);
+            }
+            return;
+        }
+
+        boolean pls = name.endsWith(".pls");
+        File baseFolder = playlistFile.getAbsoluteFile().getParentFile();
+        try (BufferedReader reader = new BufferedReader(CharsetDetector.openReader(playlistFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                String location;
+                if (pls) {
+                    // Only FileN=location lines name entries; Title, Length and the header are skipped
+                    int equals = line.indexOf('=');
+                    if (equals < 5 || !line.regionMatches(true, 0, "File", 0, 4)) {
+                        continue;
+                    }
+                    location = line.substring(equals + 1).trim();
+                } else {
+                    if (line.startsWith("#")) {
+                        continue; // #EXTM3U, #EXTINF and other directives
+                    }
+                    location = line;
+                }
+
+                File file = resolve(baseFolder, location);
+                if (file != null) {
+                    sink.accept(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a playlist. The format follows the extension: PLS for .pls,
+     * the snapshot format for .tapl and extended M3U (always UTF-8) otherwise.
+     *
+     * @param durationMillis The duration of each file in milliseconds, -1 if unknown; may be null
+     */
+    public static void write(File playlistFile, List<File> files, long[] durationMillis) throws IOException {
+        String name = playlistFile.getName().toLowerCase();
+        if (name.endsWith(SNAPSHOT_EXTENSION)) {
+            writeSnapshot(playlistFile.toPath(), files, -1);
+            return;
+        }
+
+        boolean pls = name.endsWith(".pls");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(playlistFile.toPath()), StandardCharsets.UTF_8))) {
+            if (pls) {
+                writer.write("[playlist]\n");
+            } else {
+                writer.write("#EXTM3U\n");
+            }
+
+            int number = 1;
+            for (File file : files) {
+                long millis = durationMillis != null ? durationMillis[number - 1] : -1;
+                long seconds = millis >= 0 ? Math.round(millis / 1000.0) : -1;
+                if (pls) {
+                    writer.write("File" + number + "=" + file.getAbsolutePath() + "\n");
+                    writer.write("Title" + number + "=" + file.getName() + "\n");
+                    writer.write("Length" + number + "=" + seconds + "\n");
+                } else {
+                    writer.write("#EXTINF:" + seconds + "," + file.getName() + "\n");
+                    writer.write(file.getAbsolutePath());
+                    writer.write('\n');
+                }
+                number++;
+            }
+
+            if (pls) {
+                writer.write("NumberOfEntries=" + files.size() + "\n");
+                writer.write("Version=2\n");
+            }
+        }
+    }
+
+    /**
+     * Writes the queue in the snapshot format, via a temporary file so a crash
+     * never leaves a half-written snapshot behind.
+     */
+    public static void writeSnapshot(Path path, List<File> files, int currentIndex) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(files.size());
+            out.writeInt(currentIndex);
+
+            String previous = "";
+            for (File file : files) {
+                String current = file.getAbsolutePath();
+                int shared = sharedPrefixLength(previous, current);
+                byte[] suffix = current.substring(shared).getBytes(StandardCharsets.UTF_8);
+                writeVarInt(out, shared);
+                writeVarInt(out, suffix.length);
+                out.write(suffix);
+                previous = current;
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads a snapshot straight into an array sized from its header.
+     * The whole file is read in one go and decoded from memory.
+     */
+    public static Snapshot readSnapshot(Path path) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+        try {
+            if (data.getInt() != SNAPSHOT_MAGIC || data.getInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Not a playlist snapshot: " + path);
+            }
+            int count = data.getInt();
+            int currentIndex = data.getInt();
+            if (count < 0) {
+                throw new IOException("Corrupt playlist snapshot: " + path);
+            }
+
+            byte[] bytes = data.array();
+            File[] files = new File[count];
+            char[] previous = new char[256];
+            int previousLength = 0;
+            for (int i = 0; i < count; i++) {
+                int shared = readVarInt(data);
+                int suffixLength = readVarInt(data);
+                int offset = data.position();
+                if (shared > previousLength || suffixLength < 0 || suffixLength > data.remaining()) {
+                    throw new IOException("Corrupt playlist snapshot: " + path);
+                }
+                data.position(offset + suffixLength);
+
+                // Rebuild the path in place: keep the shared prefix, append the decoded suffix
+                if (previous.length < shared + suffixLength) {
+                    char[] grown = new char[Math.max(shared + suffixLength, previous.length * 2)];
+                    System.arraycopy(previous, 0, grown, 0, shared);
+                    previous = grown;
+                }
+                int length = shared;
+                int end = offset + suffixLength;
+                int b = offset;
+                while (b < end && bytes[b] >= 0) {
+                    previous[length++] = (char) bytes[b++]; // ASCII needs no decoding
+                }
+                if (b < end) {
+                    String tail = new String(bytes, b, end - b, StandardCharsets.UTF_8);
+                    tail.getChars(0, tail.length(), previous, length);
+                    length += tail.length();
+                }
+                previousLength = length;
+                files[i] = new File(new String(previous, 0, length));
+            }
+            return new Snapshot(files, currentIndex < count ? currentIndex : -1);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated playlist snapshot: " + path);
+        }
+    }
+
+    /**
+     * Turns a playlist entry into a local file, or null for anything that is not one (e.g. http streams).
+     */
+    private static File resolve(File baseFolder, String location) {
+        if (location.isEmpty()) {
+            return null;
+        }
+        if (location.regionMatches(true, 0, "file:", 0, 5)) {
+            try {
+                return new File(URI.create(location));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        if (location.indexOf("://") > 0) {
+            return null;
+        }
+
+        File file = new File(location);
+        return file.isAbsolute() || baseFolder == null ? file : new File(baseFolder, location);
+    }
+
+    private static int sharedPrefixLength(String a, String b) {
+        int limit = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < limit && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        // Do not split a surrogate pair between prefix and suffix
+        if (i > 0 && Character.isHighSurrogate(b.charAt(i - 1))) {
+            i--;
+        }
+        return i;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarInt(ByteBuffer data) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = data.get() & 0xff;
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed number in playlist snapshot");
+    }
+}
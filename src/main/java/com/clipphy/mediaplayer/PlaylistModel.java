@@ -0,0 +1,161 @@
+package com.clipphy.mediaplayer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * The play queue. Holds the files in order as an observable list that views bind
+ * to directly, plus a hash set for constant-time duplicate checks and a lazily
+ * rebuilt position map for constant-time index lookups. Bulk operations change
+ * the list in one step, so a large import fires a single change event.
+ */
+public class PlaylistModel {
+
+    private final ObservableList<File> items = FXCollections.observableArrayList();
+    private final ObservableList<File> readOnlyItems = FXCollections.unmodifiableObservableList(items);
+    private final Set<File> members = new HashSet<>();
+
+    // Position of every file; rebuilt on the next lookup after a removal shifts indexes
+    private final Map<File, Integer> positions = new HashMap<>();
+    private boolean positionsValid = true;
+
+    /**
+     * Returns the read-only list of files, for binding to a ListView.
+     */
+    public ObservableList<File> getItems() {
+        return readOnlyItems;
+    }
+
+    /**
+     * Appends a file unless it is already queued.
+     *
+     * @return true if the file was added
+     */
+    public boolean add(File file) {
+        if (!members.add(file)) {
+            return false;
+        }
+        if (positionsValid) {
+            positions.put(file, items.size());
+        }
+        items.add(file);
+        return true;
+    }
+
+    /**
+     * Appends all files that are not already queued, as a single list change.
+     *
+     * @return The number of files added
+     */
+    public int addAll(Collection<File> files) {
+        List<File> added = new ArrayList<>(files.size());
+        for (File file : files) {
+            if (members.add(file)) {
+                added.add(file);
+            }
+        }
+        if (added.isEmpty()) {
+            return 0;
+        }
+
+        if (positionsValid) {
+            int position = items.size();
+            for (File file : added) {
+                positions.put(file, position++);
+            }
+        }
+        items.addAll(added);
+        return added.size();
+    }
+
+    /**
+     * Removes the file at the given position.
+     *
+     * @return The removed file
+     */
+    public File remove(int index) {
+        File removed = items.remove(index);
+        members.remove(removed);
+        invalidatePositions();
+        return removed;
+    }
+
+    /**
+     * Removes all given files as a single list change.
+     */
+    public void removeAll(Collection<File> files) {
+        Set<File> toRemove = files instanceof Set ? (Set<File>) files : new HashSet<>(files);
+        if (members.removeAll(toRemove)) {
+            items.removeAll(toRemove);
+            invalidatePositions();
+        }
+    }
+
+    /**
+     * Replaces the whole queue with the given files, dropping duplicates, as a single list change.
+     */
+    public void setAll(Collection<File> files) {
+        members.clear();
+        positions.clear();
+        List<File> unique = new ArrayList<>(files.size());
+        for (File file : files) {
+            if (members.add(file)) {
+                positions.put(file, unique.size());
+                unique.add(file);
+            }
+        }
+        positionsValid = true;
+        items.setAll(unique);
+    }
+
+    public void clear() {
+        members.clear();
+        positions.clear();
+        positionsValid = true;
+        items.clear();
+    }
+
+    public File get(int index) {
+        return items.get(index);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    public boolean contains(File file) {
+        return members.contains(file);
+    }
+
+    /**
+     * Returns the position of a file, or -1 if it is not queued.
+     */
+    public int indexOf(File file) {
+        if (!positionsValid) {
+            positions.clear();
+            for (int i = 0; i < items.size(); i++) {
+                positions.put(items.get(i), i);
+            }
+            positionsValid = true;
+        }
+        Integer position = positions.get(file);
+        return position != null ? position : -1;
+    }
+
+    private void invalidatePositions() {
+        positionsValid = false;
+    }
+}
@@ -0,0 +1,145 @@
+package com.clipphy.mediaplayer;
+
+import java.io.File;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+
+/**
+ * Opens the next playlist item shortly before the current one ends.
+ * The prepared player opens the file while its sidecar subtitle is parsed in
+ * the background, so the switch at the end of the current item does not pay
+ * the cost of opening the file. Only a player that has reached READY is handed
+ * over; one that is still opening is discarded and the caller opens the file
+ * itself. All methods must be called on the FX thread.
+ */
+public class PrerollStage {
+
+    private static final Log LOG = Log.forClass(PrerollStage.class);
+
+    /**
+     * A player prepared for a file, handed over by {@link #take(File)}.
+     */
+    public static class Prepared {
+        private final MediaPlayer mediaPlayer;
+        private final boolean subtitlesResolved;
+        private final CueStore subtitles;
+
+        Prepared(MediaPlayer mediaPlayer, boolean subtitlesResolved, CueStore subtitles) {
+            this.mediaPlayer = mediaPlayer;
+            this.subtitlesResolved = subtitlesResolved;
+            this.subtitles = subtitles;
+        }
+
+        public MediaPlayer getMediaPlayer() {
+            return mediaPlayer;
+        }
+
+        /**
+         * Returns true if the sidecar lookup finished, even if it found nothing.
+         */
+        public boolean isSubtitlesResolved() {
+            return subtitlesResolved;
+        }
+
+        /**
+         * Returns the pre-parsed sidecar cues, or null if there were none.
+         */
+        public CueStore getSubtitles() {
+            return subtitles;
+        }
+    }
+
+    private final SubtitleManager subtitleManager;
+    private File file;
+    private MediaPlayer mediaPlayer;
+    private Future<CueStore> subtitles;
+
+    public PrerollStage(SubtitleManager subtitleManager) {
+        this.subtitleManager = subtitleManager;
+    }
+
+    /**
+     * Starts opening the file unless it is already being prepared.
+     */
+    public void prepare(File nextFile) {
+        if (nextFile.equals(file)) {
+            return;
+        }
+        cancel();
+
+        try {
+            MediaPlayer player = new MediaPlayer(new Media(nextFile.toURI().toString()));
+            player.setOnError(() -> {
+                // A file that cannot be opened is simply not pre-rolled
+                if (player == mediaPlayer) {
+                    cancel();
+                }
+            });
+            file = nextFile;
+            mediaPlayer = player;
+            subtitles = subtitleManager.preloadSidecar(nextFile);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not pre-roll {}: {}", nextFile.getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether the given file is prepared or being prepared.
+     */
+    public boolean isPreparing(File candidate) {
+        return candidate.equals(file);
+    }
+
+    /**
+     * Hands over the prepared player if it belongs to the given file and has
+     * reached READY. Anything else that was prepared is discarded.
+     *
+     * @return The prepared player, or null if the file was not pre-rolled or is not ready yet
+     */
+    public Prepared take(File requested) {
+        // Nothing plays or pauses the prepared player, so it stays READY once it gets there
+        if (!requested.equals(file) || mediaPlayer.getStatus() != MediaPlayer.Status.READY) {
+            cancel();
+            return null;
+        }
+
+        MediaPlayer player = mediaPlayer;
+        player.setOnError(null);
+
+        boolean resolved = subtitles.isDone();
+        CueStore cues = null;
+        if (resolved) {
+            try {
+                cues = subtitles.get();
+            } catch (InterruptedException | ExecutionException e) {
+                resolved = false;
+            }
+        } else {
+            subtitles.cancel(true);
+        }
+
+        file = null;
+        mediaPlayer = null;
+        subtitles = null;
+        return new Prepared(player, resolved, cues);
+    }
+
+    /**
+     * Discards the prepared player and its subtitle parse.
+     */
+    public void cancel() {
+        if (mediaPlayer != null) {
+            mediaPlayer.setOnError(null);
+            mediaPlayer.dispose();
+        }
+        if (subtitles != null) {
+            subtitles.cancel(true);
+        }
+        file = null;
+        mediaPlayer = null;
+        subtitles = null;
+    }
+}
@@ -0,0 +1,77 @@
+package com.clipphy.mediaplayer;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends log lines to a file and rolls it over once it grows past a size:
+ * player.log becomes player.log.1, player.log.1 becomes player.log.2 and so
+ * on, with the oldest file deleted. Only used from the log writer thread.
+ */
+class RotatingLogFile {
+
+    private final Path file;
+    private final long maxBytes;
+    private final int keptFiles;
+
+    private Writer writer;
+    private long size;
+
+    RotatingLogFile(Path file, long maxBytes, int keptFiles) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.keptFiles = keptFiles;
+    }
+
+    void write(CharSequence line) throws IOException {
+        if (writer == null) {
+            open();
+        } else if (size >= maxBytes) {
+            rotate();
+        }
+        writer.append(line);
+        // Close enough for ASCII-heavy log text and cheaper than encoding twice
+        size += line.length();
+    }
+
+    void flush() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(file.getParent());
+        size = Files.isRegularFile(file) ? Files.size(file) : 0;
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private void rotate() throws IOException {
+        close();
+        Files.deleteIfExists(numbered(keptFiles));
+        for (int i = keptFiles - 1; i >= 1; i--) {
+            Path older = numbered(i);
+            if (Files.exists(older)) {
+                Files.move(older, numbered(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, numbered(1), StandardCopyOption.REPLACE_EXISTING);
+        open();
+    }
+
+    private Path numbered(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+}
@@ -0,0 +1,223 @@
+package com.clipphy.mediaplayer;
+
+import java.util.function.Consumer;
+
+import javafx.animation.PauseTransition;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+
+/**
+ * Coalesces seek requests while the user scrubs the timeline.
+ * Only the latest requested position is kept; it is sent to the player once the
+ * previous seek has landed and a minimum interval has passed, so the decoder is
+ * never buried under a backlog of stale seeks. A commit (mouse release, click)
+ * bypasses the throttle and seeks precisely to the final position.
+ * All methods must be called on the FX thread.
+ */
+public class SeekScheduler {
+
+    private static final Log LOG = Log.forClass(SeekScheduler.class);
+
+    // Minimum time between two seeks sent to the player while scrubbing
+    private static final long DEFAULT_MIN_INTERVAL_MS = 60;
+
+    // A seek counts as landed once the reported time is this close to its target
+    private static final double LANDED_TOLERANCE_MS = 250;
+
+    // Give up waiting for a seek to land after this long
+    private static final long MAX_IN_FLIGHT_MS = 400;
+
+    private final long minIntervalMs;
+    private final PauseTransition flushTimer = new PauseTransition();
+    private Consumer<Duration> onSeek;
+
+    private MediaPlayer mediaPlayer;
+    private Duration pendingTarget;
+    private Duration inFlightTarget;
+    private boolean inFlightCommitted;
+    private long inFlightSinceNanos;
+    private long lastSeekNanos;
+
+    // Latency statistics, in milliseconds
+    private long completedSeeks = 0;
+    private long coalescedRequests = 0;
+    private double lastLatencyMs = 0;
+    private double totalLatencyMs = 0;
+    private double maxLatencyMs = 0;
+    private final LatencyHistogram latencyHistogram = MetricsRegistry.getDefault().histogram("seek.latency");
+    private final MetricsRegistry.Counter issuedCounter = MetricsRegistry.getDefault().counter("seek.issued");
+    private final MetricsRegistry.Counter coalescedCounter = MetricsRegistry.getDefault().counter("seek.coalesced");
+
+    public SeekScheduler() {
+        this(DEFAULT_MIN_INTERVAL_MS);
+    }
+
+    public SeekScheduler(long minIntervalMs) {
+        this.minIntervalMs = minIntervalMs;
+        flushTimer.setOnFinished(e -> pump());
+    }
+
+    /**
+     * Sets a callback that runs every time a seek is actually sent to the player.
+     */
+    public void setOnSeek(Consumer<Duration> onSeek) {
+        this.onSeek = onSeek;
+    }
+
+    /**
+     * Attaches the scheduler to the player of a playback session.
+     * The scheduler detaches itself when the session is torn down.
+     */
+    public void attach(PlaybackSession session) {
+        reset();
+        mediaPlayer = session.getMediaPlayer();
+        session.addListener(mediaPlayer.currentTimeProperty(), (obs, oldTime, newTime) -> onTimeReported(newTime));
+        session.onDetach(() -> {
+            reset();
+            mediaPlayer = null;
+        });
+    }
+
+    /**
+     * Requests a seek while scrubbing. Replaces any request that has not been sent yet.
+     */
+    public void request(Duration target) {
+        if (mediaPlayer == null) {
+            return;
+        }
+        if (pendingTarget != null) {
+            coalescedRequests++;
+            coalescedCounter.increment();
+        }
+        pendingTarget = target;
+        pump();
+    }
+
+    /**
+     * Seeks to the final position immediately, dropping any pending scrub request.
+     */
+    public void commit(Duration target) {
+        if (mediaPlayer == null) {
+            return;
+        }
+        flushTimer.stop();
+        if (pendingTarget != null) {
+            coalescedRequests++;
+            coalescedCounter.increment();
+            pendingTarget = null;
+        }
+
+        // A click right after a release would otherwise seek to the same spot twice
+        if (inFlightTarget != null && Math.abs(inFlightTarget.toMillis() - target.toMillis()) < 1) {
+            inFlightCommitted = true;
+            return;
+        }
+        issue(target, true);
+    }
+
+    /**
+     * Sends the pending request if the throttle allows it, or schedules a retry.
+     */
+    private void pump() {
+        if (pendingTarget == null || mediaPlayer == null) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long waitMs = 0;
+        if (inFlightTarget != null) {
+            waitMs = MAX_IN_FLIGHT_MS - (now - inFlightSinceNanos) / 1_000_000;
+        }
+        waitMs = Math.max(waitMs, minIntervalMs - (now - lastSeekNanos) / 1_000_000);
+
+        if (waitMs > 0) {
+            // Landing of the in-flight seek will pump sooner if it comes first
+            if (flushTimer.getStatus() != PauseTransition.Status.RUNNING) {
+                flushTimer.setDuration(Duration.millis(waitMs));
+                flushTimer.playFromStart();
+            }
+            return;
+        }
+
+        Duration target = pendingTarget;
+        pendingTarget = null;
+        issue(target, false);
+    }
+
+    /**
+     * Sends a seek to the player. A seek still in flight is superseded and not
+     * counted in the latency statistics.
+     */
+    private void issue(Duration target, boolean committed) {
+        long now = System.nanoTime();
+        inFlightTarget = target;
+        inFlightCommitted = committed;
+        inFlightSinceNanos = now;
+        lastSeekNanos = now;
+        mediaPlayer.seek(target);
+        issuedCounter.increment();
+
+        if (onSeek != null) {
+            onSeek.accept(target);
+        }
+    }
+
+    private void onTimeReported(Duration time) {
+        if (inFlightTarget == null) {
+            return;
+        }
+        if (Math.abs(time.toMillis() - inFlightTarget.toMillis()) <= LANDED_TOLERANCE_MS) {
+            long latencyNanos = System.nanoTime() - inFlightSinceNanos;
+            latencyHistogram.recordNanos(latencyNanos);
+            recordLatency(latencyNanos / 1_000_000.0);
+            if (inFlightCommitted) {
+                // Report once per user seek rather than for every scrub step
+                LOG.info(this::getStatsSummary);
+            }
+            inFlightTarget = null;
+            flushTimer.stop();
+            pump();
+        }
+    }
+
+    private void recordLatency(double latencyMs) {
+        completedSeeks++;
+        lastLatencyMs = latencyMs;
+        totalLatencyMs += latencyMs;
+        maxLatencyMs = Math.max(maxLatencyMs, latencyMs);
+    }
+
+    private void reset() {
+        flushTimer.stop();
+        pendingTarget = null;
+        inFlightTarget = null;
+    }
+
+    public long getCompletedSeeks() {
+        return completedSeeks;
+    }
+
+    public long getCoalescedRequests() {
+        return coalescedRequests;
+    }
+
+    public double getLastLatencyMillis() {
+        return lastLatencyMs;
+    }
+
+    public double getAverageLatencyMillis() {
+        return completedSeeks == 0 ? 0 : totalLatencyMs / completedSeeks;
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxLatencyMs;
+    }
+
+    /**
+     * Returns a one-line summary of the seek latency statistics.
+     */
+    public String getStatsSummary() {
+        return String.format("Seek latency: last %.0f ms, avg %.0f ms, max %.0f ms (%d seeks, %d coalesced)",
+                lastLatencyMs, getAverageLatencyMillis(), maxLatencyMs, completedSeeks, coalescedRequests);
+    }
+}
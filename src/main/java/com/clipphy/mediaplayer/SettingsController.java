@@ -0,0 +1,90 @@
+package com.clipphy.mediaplayer;
+
+import java.net.URL;
+import java.util.ResourceBundle;
+
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.RadioButton;
+import javafx.scene.control.Slider;
+import javafx.scene.control.ToggleGroup;
+
+/**
+ * The equalizer and settings tabs below the playlist. The view is built after
+ * the main window first shows, so the main controller keeps the values until
+ * then and hands them over with the show methods once it is attached.
+ */
+public class SettingsController implements Initializable {
+
+    /**
+     * Receives the changes made in the tabs.
+     */
+    public interface Listener {
+        void onEqualizerPresetChanged(String preset);
+
+        void onPlaybackRateChanged(double rate);
+
+        void onThemeChanged(String themeName);
+    }
+
+    @FXML private ComboBox<String> equalizerPresetComboBox;
+    @FXML private ToggleGroup themeToggleGroup;
+    @FXML private RadioButton darkThemeRadio;
+    @FXML private RadioButton lightThemeRadio;
+    @FXML private Slider playbackSpeedSlider;
+
+    private Listener listener;
+
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        equalizerPresetComboBox.getItems().addAll(EqualizerPresets.names());
+        equalizerPresetComboBox.setValue(EqualizerPresets.FLAT);
+        equalizerPresetComboBox.valueProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal != null && listener != null) {
+                listener.onEqualizerPresetChanged(newVal);
+            }
+        });
+
+        playbackSpeedSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
+            if (listener != null) {
+                listener.onPlaybackRateChanged(newVal.doubleValue());
+            }
+        });
+
+        darkThemeRadio.setSelected(true);
+        darkThemeRadio.setUserData("dark-theme.css");
+        lightThemeRadio.setUserData("light-theme.css");
+
+        themeToggleGroup.selectedToggleProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal != null) {
+                if (listener != null) {
+                    listener.onThemeChanged(newVal.getUserData().toString());
+                }
+            } else {
+                // If no theme is selected, reselect the previous one
+                themeToggleGroup.selectToggle(oldVal);
+            }
+        });
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void showEqualizerPreset(String preset) {
+        equalizerPresetComboBox.setValue(preset);
+    }
+
+    public void showPlaybackRate(double rate) {
+        playbackSpeedSlider.setValue(rate);
+    }
+
+    public void showTheme(String themeName) {
+        if (themeName.equals(lightThemeRadio.getUserData())) {
+            lightThemeRadio.setSelected(true);
+        } else if (themeName.equals(darkThemeRadio.getUserData())) {
+            darkThemeRadio.setSelected(true);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.clipphy.mediaplayer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+import javafx.application.Platform;
+
+/**
+ * Keeps player preferences and resume positions across runs.
+ * Values live in memory and every change is appended to a log file as a
+ * checksummed record. Changes are collected for a moment and written in one
+ * batch on a background thread, so a dragged slider costs a single write.
+ * A torn record left by a crash is cut off on the next start, and the log is
+ * rewritten with only the live values once it has grown well past them.
+ */
+public class SettingsStore {
+
+    private static final Log LOG = Log.forClass(SettingsStore.class);
+
+    private static final byte OP_PUT = 0;
+    private static final byte OP_REMOVE = 1;
+
+    // Changes are written this long after the first one in a batch
+    private static final long WRITE_DELAY_MS = 1000;
+
+    // Compact once the log holds this many records more than twice the live values
+    private static final int COMPACT_SLACK = 256;
+
+    private final Path logFile;
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+    private final Set<String> changedBeforeLoad = ConcurrentHashMap.newKeySet();
+    private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+
+    // Changes waiting for the next batch; a null value marks a removal
+    private final Map<String, String> pending = new LinkedHashMap<>();
+    private final AtomicBoolean writeScheduled = new AtomicBoolean();
+
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "settings-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private FileChannel channel;
+    private int recordsInLog = 0;
+
+    /**
+     * Opens the store and starts reading the log in the background.
+     */
+    public SettingsStore(Path logFile) {
+        this.logFile = logFile;
+        writer.execute(this::load);
+    }
+
+    /**
+     * Runs the action on the FX thread once the stored values are available.
+     */
+    public void whenLoaded(Runnable action) {
+        loaded.thenRun(() -> Platform.runLater(action));
+    }
+
+    public boolean isLoaded() {
+        return loaded.isDone();
+    }
+
+    public String getString(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        String value = values.get(key);
+        if (value != null) {
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                // Fall through to the default
+            }
+        }
+        return defaultValue;
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = values.get(key);
+        if (value != null) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                // Fall through to the default
+            }
+        }
+        return defaultValue;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = values.get(key);
+        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+    }
+
+    public void put(String key, String value) {
+        if (value.equals(values.put(key, value))) {
+            return; // Unchanged, nothing to write
+        }
+        schedule(key, value);
+    }
+
+    public void put(String key, double value) {
+        put(key, Double.toString(value));
+    }
+
+    public void put(String key, long value) {
+        put(key, Long.toString(value));
+    }
+
+    public void put(String key, boolean value) {
+        put(key, Boolean.toString(value));
+    }
+
+    public void remove(String key) {
+        if (values.remove(key) != null || !loaded.isDone()) {
+            schedule(key, null);
+        }
+    }
+
+    /**
+     * Writes outstanding changes and closes the log. Blocks briefly, so call it only on exit.
+     */
+    public void close() {
+        writer.execute(() -> {
+            flush();
+            closeChannel();
+        });
+        writer.shutdown();
+        try {
+            writer.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void schedule(String key, String value) {
+        if (!loaded.isDone()) {
+            changedBeforeLoad.add(key);
+        }
+        synchronized (pending) {
+            pending.put(key, value);
+        }
+        if (writeScheduled.compareAndSet(false, true)) {
+            try {
+                writer.schedule(this::flush, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                writeScheduled.set(false); // Shut down; close() writes what is left
+            }
+        }
+    }
+
+    /**
+     * Runs on the writer thread: appends every pending change as one batch.
+     */
+    private void flush() {
+        writeScheduled.set(false);
+        Map<String, String> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+
+        try {
+            FileChannel log = openChannel();
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            for (Map.Entry<String, String> change : batch.entrySet()) {
+                writeRecord(buffer, change.getKey(), change.getValue());
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                log.write(bytes);
+            }
+            log.force(false);
+            recordsInLog += batch.size();
+
+            if (recordsInLog > values.size() * 2 + COMPACT_SLACK) {
+                compact();
+            }
+        } catch (IOException e) {
+            LOG.warn("Could not write settings: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Runs on the writer thread: reads every intact record and drops a torn tail.
+     */
+    private void load() {
+        Map<String, String> stored = new LinkedHashMap<>();
+        try {
+            byte[] data = Files.readAllBytes(logFile);
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            CRC32 crc = new CRC32();
+            int validEnd = 0;
+            while (buffer.remaining() >= 8) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                crc.reset();
+                crc.update(data, buffer.position(), length);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(data, buffer.position(), length));
+                byte op = record.readByte();
+                String key = record.readUTF();
+                if (op == OP_PUT) {
+                    stored.put(key, record.readUTF());
+                } else {
+                    stored.remove(key);
+                }
+                buffer.position(buffer.position() + length);
+                validEnd = buffer.position();
+                recordsInLog++;
+            }
+
+            if (validEnd < data.length) {
+                LOG.warn("Settings log has a damaged tail, dropping {} bytes", data.length - validEnd);
+                try (FileChannel log = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+                    log.truncate(validEnd);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // First run
+        } catch (EOFException e) {
+            LOG.warn("Settings log is truncated");
+        } catch (IOException e) {
+            LOG.warn("Could not read settings: {}", e.getMessage());
+        }
+
+        // Values changed while loading are newer than anything on disk
+        for (Map.Entry<String, String> entry : stored.entrySet()) {
+            if (!changedBeforeLoad.contains(entry.getKey())) {
+                values.put(entry.getKey(), entry.getValue());
+            }
+        }
+        changedBeforeLoad.clear();
+        loaded.complete(null);
+    }
+
+    /**
+     * Rewrites the log with only the live values, via a temporary file and an atomic swap.
+     */
+    private void compact() throws IOException {
+        Path temp = logFile.resolveSibling(logFile.getFileName() + ".tmp");
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        int count = 0;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            writeRecord(buffer, entry.getKey(), entry.getValue());
+            count++;
+        }
+
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+            out.force(false);
+        }
+
+        closeChannel();
+        Files.move(temp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        recordsInLog = count;
+    }
+
+    private FileChannel openChannel() throws IOException {
+        if (channel == null) {
+            Files.createDirectories(logFile.toAbsolutePath().getParent());
+            channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOG.warn("Could not close settings log: {}", e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * Appends one record: payload length, CRC32 of the payload, then the payload itself.
+     */
+    private static void writeRecord(ByteArrayOutputStream buffer, String key, String value) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(16 + key.length() + (value != null ? value.length() : 0));
+        DataOutputStream out = new DataOutputStream(payload);
+        out.writeByte(value != null ? OP_PUT : OP_REMOVE);
+        out.writeUTF(key);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+        out.flush();
+
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        DataOutputStream header = new DataOutputStream(buffer);
+        header.writeInt(bytes.length);
+        header.writeInt((int) crc.getValue());
+        header.write(bytes);
+        header.flush();
+    }
+}
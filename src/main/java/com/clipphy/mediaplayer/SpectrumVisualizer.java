@@ -0,0 +1,163 @@
+package com.clipphy.mediaplayer;
+
+import java.util.Arrays;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Region;
+import javafx.scene.media.AudioSpectrumListener;
+import javafx.scene.media.MediaPlayer;
+import javafx.scene.paint.Color;
+
+/**
+ * Shows the audio spectrum of the playing media as bars with falling peaks.
+ * Spectrum updates only copy levels into buffers allocated once; a separate
+ * timer draws at a capped frame rate and skips frames while nothing moves.
+ * Neither path allocates, so the view can run for hours without feeding the
+ * garbage collector.
+ */
+public class SpectrumVisualizer extends Region {
+
+    private static final int BANDS = 64;
+
+    // How often the player reports the spectrum, in seconds
+    private static final double SPECTRUM_INTERVAL = 1.0 / 30;
+
+    // Draw at most this many frames per second
+    private static final long FRAME_INTERVAL_NANOS = 1_000_000_000L / 30;
+
+    // How fast bars and peaks fall, per frame
+    private static final float BAR_DECAY = 0.85f;
+    private static final float PEAK_FALL = 0.012f;
+
+    private final Canvas canvas = new Canvas();
+    private final float[] levels = new float[BANDS];
+    private final float[] bars = new float[BANDS];
+    private final float[] peaks = new float[BANDS];
+    private final AudioSpectrumListener spectrumListener = this::onSpectrum;
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            if (now - lastFrameNanos >= FRAME_INTERVAL_NANOS) {
+                lastFrameNanos = now;
+                drawFrame();
+            }
+        }
+    };
+
+    private MediaPlayer mediaPlayer;
+    private float threshold = -60;
+    private long lastFrameNanos = 0;
+    private boolean moving = false;
+    private Color barColor = Color.rgb(0, 150, 255, 0.8);
+    private Color peakColor = Color.gray(1.0, 0.8);
+
+    public SpectrumVisualizer() {
+        getChildren().add(canvas);
+        setMouseTransparent(true);
+        setVisible(false);
+    }
+
+    /**
+     * Starts showing the spectrum of a player.
+     */
+    public void attach(MediaPlayer player) {
+        detach();
+        mediaPlayer = player;
+        threshold = player.getAudioSpectrumThreshold();
+        player.setAudioSpectrumNumBands(BANDS);
+        player.setAudioSpectrumInterval(SPECTRUM_INTERVAL);
+        player.setAudioSpectrumListener(spectrumListener);
+        setVisible(true);
+        timer.start();
+    }
+
+    /**
+     * Stops listening to the player and hides the view.
+     */
+    public void detach() {
+        if (mediaPlayer != null) {
+            mediaPlayer.setAudioSpectrumListener(null);
+            mediaPlayer = null;
+        }
+        timer.stop();
+        Arrays.fill(levels, 0);
+        Arrays.fill(bars, 0);
+        Arrays.fill(peaks, 0);
+        moving = false;
+        canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        setVisible(false);
+    }
+
+    public void setColors(Color barColor, Color peakColor) {
+        this.barColor = barColor;
+        this.peakColor = peakColor;
+        moving = true;
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double width = snapSizeX(getWidth());
+        double height = snapSizeY(getHeight());
+        if (canvas.getWidth() != width || canvas.getHeight() != height) {
+            canvas.setWidth(width);
+            canvas.setHeight(height);
+            moving = true;
+        }
+    }
+
+    /**
+     * Called by the player on the FX thread: turns decibels into levels from 0 to 1.
+     */
+    private void onSpectrum(double timestamp, double duration, float[] magnitudes, float[] phases) {
+        int count = Math.min(BANDS, magnitudes.length);
+        for (int i = 0; i < count; i++) {
+            float level = (magnitudes[i] - threshold) / -threshold;
+            levels[i] = level < 0 ? 0 : (level > 1 ? 1 : level);
+        }
+        moving = true;
+    }
+
+    private void drawFrame() {
+        if (!moving) {
+            return; // Nothing changed since the last frame
+        }
+
+        // Bars jump up and fall back slowly; peaks hold and then drop
+        boolean stillMoving = false;
+        for (int i = 0; i < BANDS; i++) {
+            float bar = Math.max(levels[i], bars[i] * BAR_DECAY);
+            bars[i] = bar < 0.001f ? 0 : bar;
+            peaks[i] = Math.max(bars[i], peaks[i] - PEAK_FALL);
+            if (peaks[i] < 0.001f) {
+                peaks[i] = 0;
+            }
+            stillMoving |= bars[i] > 0 || peaks[i] > 0;
+        }
+        moving = stillMoving;
+
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        gc.clearRect(0, 0, width, height);
+
+        double slot = width / BANDS;
+        double barWidth = Math.max(1, slot * 0.7);
+        double maxHeight = height * 0.8;
+        double bottom = height * 0.9;
+
+        gc.setFill(barColor);
+        for (int i = 0; i < BANDS; i++) {
+            double barHeight = bars[i] * maxHeight;
+            gc.fillRect(i * slot + (slot - barWidth) / 2, bottom - barHeight, barWidth, barHeight);
+        }
+
+        gc.setFill(peakColor);
+        for (int i = 0; i < BANDS; i++) {
+            if (peaks[i] > 0) {
+                gc.fillRect(i * slot + (slot - barWidth) / 2, bottom - peaks[i] * maxHeight - 3, barWidth, 2);
+            }
+        }
+    }
+}
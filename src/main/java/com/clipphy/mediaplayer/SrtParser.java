@@ -0,0 +1,118 @@
+package com.clipphy.mediaplayer;
+
+import java.io.IOException;
+
+/**
+ * Streaming parser for SRT subtitle files.
+ * Hands each cue to the sink as soon as it is complete, so cues become available
+ * while the file is still being read.
+ */
+public class SrtParser extends TextSubtitleParser {
+
+    // Reused for every cue so parsing allocates nothing per cue
+    private final StringBuilder text = new StringBuilder(256);
+
+    // Results of the last successful parseTimeRange call
+    private long parsedStart;
+    private long parsedEnd;
+
+    @Override
+    public String[] extensions() {
+        return new String[] {"srt"};
+    }
+
+    @Override
+    protected void parseLines(CueSink sink) throws IOException {
+        long start = 0;
+        long end = 0;
+
+        // 0: expecting index, 1: expecting time, 2: expecting text
+        int state = 0;
+
+        while (readLine()) {
+            int from = trimStart();
+            int to = trimEnd(from);
+            boolean blank = from == to;
+
+            switch (state) {
+                case 0: // Expecting index number, tolerate a missing index
+                    if (!blank) {
+                        if (parseTimeRange(from, to)) {
+                            start = parsedStart;
+                            end = parsedEnd;
+                            text.setLength(0);
+                            state = 2;
+                        } else if (isDigits(from, to)) {
+                            state = 1;
+                        }
+                    }
+                    break;
+
+                case 1: // Expecting time range
+                    if (!blank && parseTimeRange(from, to)) {
+                        start = parsedStart;
+                        end = parsedEnd;
+                        text.setLength(0);
+                        state = 2;
+                    }
+                    break;
+
+                case 2: // Expecting subtitle text
+                    if (blank) {
+                        // Empty line indicates end of this subtitle
+                        sink.cue(start, end, text);
+                        state = 0;
+                    } else {
+                        if (text.length() > 0) {
+                            text.append('\n');
+                        }
+                        text.append(line, from, to);
+                    }
+                    break;
+            }
+        }
+
+        // Emit the last subtitle if the file does not end with a blank line
+        if (state == 2 && text.length() > 0) {
+            sink.cue(start, end, text);
+        }
+    }
+
+    /**
+     * Parses "HH:MM:SS,mmm --> HH:MM:SS,mmm" within the given range of the line.
+     * Accepts '.' as the millisecond separator and ignores trailing position hints.
+     */
+    private boolean parseTimeRange(int from, int to) {
+        cursor = from;
+        long start = parseTimestamp(to);
+        if (start < 0) {
+            return false;
+        }
+
+        skipSpaces(to);
+        if (!lineStartsWith("-->", cursor)) {
+            return false;
+        }
+        cursor += 3;
+        skipSpaces(to);
+
+        long end = parseTimestamp(to);
+        if (end < 0) {
+            return false;
+        }
+
+        parsedStart = start;
+        parsedEnd = end;
+        return true;
+    }
+
+    private boolean isDigits(int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
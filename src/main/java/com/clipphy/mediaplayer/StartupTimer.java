@@ -0,0 +1,60 @@
+package com.clipphy.mediaplayer;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records how long after the JVM was started each startup phase was reached.
+ * Phases are printed as one line of name=millis pairs, which the startup
+ * benchmark reads back from the output of the runs it launches.
+ */
+public final class StartupTimer {
+
+    public static final String JVM_UP = "jvm-up";
+    public static final String FXML_LOADED = "fxml-loaded";
+    public static final String STAGE_SHOWN = "stage-shown";
+    public static final String FIRST_MEDIA_READY = "first-media-ready";
+
+    // Prefix of the reported line
+    public static final String REPORT_PREFIX = "Startup phases (ms):";
+
+    // Set on runs launched by the benchmark: report the phases and quit once the window is up
+    public static final String BENCHMARK_PROPERTY = "tamediaplayer.startupBenchmark";
+
+    private static final long processStartMillis = ProcessHandle.current().info().startInstant()
+            .map(Instant::toEpochMilli)
+            .orElse(System.currentTimeMillis());
+
+    private static final Map<String, Long> phases = new LinkedHashMap<>();
+
+    private StartupTimer() {
+    }
+
+    /**
+     * Records the first time a phase is reached; later calls for the same phase are ignored.
+     */
+    public static synchronized void mark(String phase) {
+        if (!phases.containsKey(phase)) {
+            phases.put(phase, System.currentTimeMillis() - processStartMillis);
+            if (FIRST_MEDIA_READY.equals(phase)) {
+                report();
+            }
+        }
+    }
+
+    /**
+     * Prints the phases reached so far.
+     */
+    public static synchronized void report() {
+        StringBuilder line = new StringBuilder(REPORT_PREFIX);
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            line.append(' ').append(phase.getKey()).append('=').append(phase.getValue());
+        }
+        System.out.println(line);
+    }
+
+    public static boolean isBenchmarkRun() {
+        return Boolean.getBoolean(BENCHMARK_PROPERTY);
+    }
+}
@@ -0,0 +1,121 @@
+package com.clipphy.mediaplayer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.ServiceLoader;
+
+/**
+ * Looks up subtitle parsers registered through {@link ServiceLoader}.
+ * The providers are loaded once on first use; parsers are matched by file
+ * extension and a new instance is returned per lookup.
+ */
+public class SubtitleFormats {
+
+    private SubtitleFormats() {
+    }
+
+    /**
+     * Returns a new parser for the file, or null if no registered format handles it.
+     */
+    public static SubtitleParser parserFor(File file) {
+        if (file == null) {
+            return null;
+        }
+        String extension = extensionOf(file);
+        for (Format format : Registered.FORMATS) {
+            for (String supported : format.extensions) {
+                if (supported.equals(extension)) {
+                    return format.provider.get();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether any registered format handles the file.
+     * Only looks at the name, so it is cheap enough to call for every dropped file.
+     */
+    public static boolean isSubtitleFile(File file) {
+        return file != null && Registered.EXTENSIONS.contains(extensionOf(file));
+    }
+
+    /**
+     * Returns all supported extensions as file chooser patterns, e.g. "*.srt".
+     */
+    public static List<String> extensionPatterns() {
+        List<String> patterns = new ArrayList<>();
+        for (Format format : Registered.FORMATS) {
+            for (String extension : format.extensions) {
+                patterns.add("*." + extension);
+            }
+        }
+        return patterns;
+    }
+
+    /**
+     * Finds a subtitle file next to the media file with the same base name.
+     *
+     * @param mediaFile The media file
+     * @return The first matching subtitle file, or null if there is none
+     */
+    public static File findSidecar(File mediaFile) {
+        String mediaPath = mediaFile.getAbsolutePath();
+        int dot = mediaPath.lastIndexOf('.');
+        String basePath = dot > mediaPath.lastIndexOf(File.separatorChar) ? mediaPath.substring(0, dot) : mediaPath;
+
+        for (Format format : Registered.FORMATS) {
+            for (String extension : format.extensions) {
+                File candidate = new File(basePath + "." + extension);
+                if (candidate.exists()) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Registered formats and their extensions, loaded once on first use
+    private static class Registered {
+        static final List<Format> FORMATS = loadFormats();
+        static final Set<String> EXTENSIONS = collectExtensions();
+
+        private static List<Format> loadFormats() {
+            List<Format> formats = new ArrayList<>();
+            ServiceLoader.load(SubtitleParser.class, SubtitleParser.class.getClassLoader()).stream()
+                    .forEach(provider -> formats.add(new Format(provider, provider.get().extensions())));
+            return Collections.unmodifiableList(formats);
+        }
+
+        private static Set<String> collectExtensions() {
+            Set<String> extensions = new HashSet<>();
+            for (Format format : FORMATS) {
+                extensions.addAll(Arrays.asList(format.extensions));
+            }
+            return Collections.unmodifiableSet(extensions);
+        }
+    }
+
+    // A provider with the extensions its parsers handle; parsers keep per-file
+    // state, so the provider is kept to create a fresh one per lookup
+    private static class Format {
+        final ServiceLoader.Provider<SubtitleParser> provider;
+        final String[] extensions;
+
+        Format(ServiceLoader.Provider<SubtitleParser> provider, String[] extensions) {
+            this.provider = provider;
+            this.extensions = extensions;
+        }
+    }
+
+    private static String extensionOf(File file) {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(dot + 1).toLowerCase() : "";
+    }
+}
@@ -1,194 +1,371 @@
 package com.clipphy.mediaplayer;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
 import javafx.scene.control.Label;
 import javafx.scene.media.MediaPlayer;
 import javafx.util.Duration;
 
 public class SubtitleManager {
+
+    private static final Log LOG = Log.forClass(SubtitleManager.class);
     
-    private final List<Subtitle> subtitles = new ArrayList<>();
+    private final CueStore cues = new CueStore();
     private final Label subtitleLabel;
     private MediaPlayer mediaPlayer;
     private boolean isActive = false;
+
+    // Running maximum of cue end times in start order, used to stop the
+    // backward overlap scan; extended as in-order batches arrive and rebuilt
+    // only when new cues break the start order
+    private long[] maxEndUpTo = new long[0];
+
+    // Lookup cursor: the cue on screen and the time window in which it stays valid
+    private int activeIndex = -1;
+    private long validFrom = Long.MAX_VALUE;
+    private long validUntil = Long.MIN_VALUE;
+
+    // Parsing runs on a single daemon thread; the generation counter drops
+    // batches that belong to a load that has since been replaced or disabled
+    private static final int CUE_BATCH_SIZE = 256;
+    private final ExecutorService parserExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "subtitle-parser");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> parseTask;
+    private int loadGeneration = 0;
+
+    // Transition scheduler: instead of polling the media time, a single timer is
+    // armed for the next cue start or end and re-armed on status and rate changes
+    private static final long MIN_TRANSITION_DELAY_MS = 10;
+    private final ScheduledExecutorService transitionTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "subtitle-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?> pendingTransition;
+    private final ChangeListener<MediaPlayer.Status> statusListener = (obs, oldStatus, newStatus) -> resync();
+    private final ChangeListener<Number> rateListener = (obs, oldRate, newRate) -> resync();
+
+    private final LatencyHistogram lookupLatency = MetricsRegistry.getDefault().histogram("subtitle.lookup");
+    private final MetricsRegistry.Counter cachedLookups = MetricsRegistry.getDefault().counter("subtitle.lookup.cached");
     
     public SubtitleManager(Label subtitleLabel) {
         this.subtitleLabel = subtitleLabel;
     }
     
     public void setMediaPlayer(MediaPlayer mediaPlayer) {
+        if (this.mediaPlayer != null) {
+            this.mediaPlayer.statusProperty().removeListener(statusListener);
+            this.mediaPlayer.rateProperty().removeListener(rateListener);
+        }
+
         this.mediaPlayer = mediaPlayer;
-        if (isActive && mediaPlayer != null) {
-            setupSubtitleListener();
+
+        if (mediaPlayer != null) {
+            // Pause, resume, stop and speed changes all move the next transition
+            mediaPlayer.statusProperty().addListener(statusListener);
+            mediaPlayer.rateProperty().addListener(rateListener);
         }
+        resync();
     }
-    
-    public boolean loadSubtitle(File file) {
-        if (file == null || !file.exists() || !file.getName().toLowerCase().endsWith(".srt")) {
-            return false;
+
+    /**
+     * Re-evaluates the visible cue at the player's current time and re-arms the
+     * transition timer. Status and rate changes call this automatically.
+     * Must be called on the FX thread.
+     */
+    public void resync() {
+        resync(mediaPlayer != null ? mediaPlayer.getCurrentTime() : Duration.ZERO);
+    }
+
+    /**
+     * Re-evaluates the visible cue at the given media time and re-arms the
+     * transition timer. Call after a seek with the seek target, since the
+     * player may still report the old position for a moment.
+     *
+     * @param currentTime The media time to resynchronise to
+     */
+    public void resync(Duration currentTime) {
+        cancelPendingTransition();
+        if (!isActive || mediaPlayer == null) {
+            return;
         }
-        
-        try {
-            parseSubtitleFile(file);
-            isActive = !subtitles.isEmpty();
-            
-            if (isActive && mediaPlayer != null) {
-                setupSubtitleListener();
-            }
-            
-            return isActive;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;
+
+        updateSubtitle(currentTime);
+
+        // Nothing moves while paused or stopped, and there may be no further cue
+        double rate = mediaPlayer.getRate();
+        if (mediaPlayer.getStatus() != MediaPlayer.Status.PLAYING || rate <= 0 || validUntil == Long.MAX_VALUE) {
+            return;
+        }
+
+        // Convert the media-time distance to wall-clock time at the current rate
+        long mediaDelay = validUntil - (long) currentTime.toMillis();
+        long delay = Math.max(MIN_TRANSITION_DELAY_MS, (long) Math.ceil(mediaDelay / rate));
+        pendingTransition = transitionTimer.schedule(() -> Platform.runLater(this::resync), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelPendingTransition() {
+        if (pendingTransition != null) {
+            pendingTransition.cancel(false);
+            pendingTransition = null;
         }
     }
     
+    /**
+     * Starts loading a subtitle file on the background parser thread.
+     * Cues are shown as soon as the first batch is parsed; the callback runs on
+     * the FX thread once the whole file has been read.
+     *
+     * @param file The subtitle file to load
+     * @param onFinished Receives true if at least one cue was loaded
+     */
+    public void loadSubtitle(File file, Consumer<Boolean> onFinished) {
+        SubtitleParser parser = SubtitleFormats.parserFor(file);
+        if (parser == null || !file.exists()) {
+            onFinished.accept(false);
+            return;
+        }
+
+        // Drop whatever was loaded or still loading for the previous file
+        cancelLoad();
+        cancelPendingTransition();
+        isActive = false;
+        cues.clear();
+        buildCueIndex();
+        subtitleLabel.setText("");
+
+        int generation = loadGeneration;
+        parseTask = parserExecutor.submit(() -> parseSubtitleFile(file, parser, generation, onFinished));
+    }
+
+    /**
+     * Parses the sidecar subtitle of a media file in the background without
+     * showing it, so it can be swapped in later with {@link #showPreloaded}.
+     *
+     * @param mediaFile The media file whose sidecar should be parsed
+     * @return A future yielding the parsed cues, or null if there is no sidecar
+     */
+    public Future<CueStore> preloadSidecar(File mediaFile) {
+        return parserExecutor.submit(() -> {
+            File subtitleFile = SubtitleFormats.findSidecar(mediaFile);
+            SubtitleParser parser = SubtitleFormats.parserFor(subtitleFile);
+            if (parser == null) {
+                return null;
+            }
+
+            CueStore preloaded = new CueStore();
+            try (Reader reader = CharsetDetector.openReader(subtitleFile)) {
+                parser.parse(reader, preloaded::add);
+            }
+            preloaded.sortByStart();
+            return preloaded;
+        });
+    }
+
+    /**
+     * Replaces the current subtitles with cues parsed by {@link #preloadSidecar}.
+     */
+    public void showPreloaded(CueStore preloaded) {
+        cancelLoad();
+        cancelPendingTransition();
+        FxWatchdog.run("Indexing " + preloaded.size() + " subtitle cues", () -> replaceCues(preloaded));
+        subtitleLabel.setText("");
+        isActive = !cues.isEmpty();
+        resync();
+    }
+
     public void disable() {
+        cancelLoad();
+        cancelPendingTransition();
         isActive = false;
-        subtitles.clear();
+        cues.clear();
+        buildCueIndex();
         subtitleLabel.setText("");
     }
     
     public boolean isActive() {
         return isActive;
     }
-    
-    private void parseSubtitleFile(File file) throws IOException {
-        subtitles.clear();
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            int index = 0;
-            String text = "";
-            Duration start = Duration.ZERO;
-            Duration end = Duration.ZERO;
-            
-            // A basic state machine to parse SRT files
-            int state = 0; // 0: expecting index, 1: expecting time, 2: expecting text, 3: expecting blank line
-            
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                
-                switch (state) {
-                    case 0: // Expecting index number
-                        if (!line.isEmpty()) {
-                            try {
-                                index = Integer.parseInt(line);
-                                state = 1;
-                            } catch (NumberFormatException e) {
-                                // Not a number, skip this line
-                            }
-                        }
-                        break;
-                        
-                    case 1: // Expecting time range
-                        if (!line.isEmpty()) {
-                            Pattern pattern = Pattern.compile("(\\d{2}):(\\d{2}):(\\d{2}),(\\d{3})\\s+-->\\s+(\\d{2}):(\\d{2}):(\\d{2}),(\\d{3})");
-                            Matcher matcher = pattern.matcher(line);
-                            
-                            if (matcher.find()) {
-                                int startHours = Integer.parseInt(matcher.group(1));
-                                int startMinutes = Integer.parseInt(matcher.group(2));
-                                int startSeconds = Integer.parseInt(matcher.group(3));
-                                int startMillis = Integer.parseInt(matcher.group(4));
-                                
-                                int endHours = Integer.parseInt(matcher.group(5));
-                                int endMinutes = Integer.parseInt(matcher.group(6));
-                                int endSeconds = Integer.parseInt(matcher.group(7));
-                                int endMillis = Integer.parseInt(matcher.group(8));
-                                
-                                start = Duration.hours(startHours).add(Duration.minutes(startMinutes))
-                                        .add(Duration.seconds(startSeconds)).add(Duration.millis(startMillis));
-                                        
-                                end = Duration.hours(endHours).add(Duration.minutes(endMinutes))
-                                        .add(Duration.seconds(endSeconds)).add(Duration.millis(endMillis));
-                                
-                                state = 2;
-                                text = "";
-                            }
-                        }
-                        break;
-                        
-                    case 2: // Expecting subtitle text
-                        if (line.isEmpty()) {
-                            // Empty line indicates end of this subtitle
-                            subtitles.add(new Subtitle(index, start, end, text.trim()));
-                            state = 0;
-                        } else {
-                            // Append the line to the subtitle text
-                            if (!text.isEmpty()) {
-                                text += "\n";
-                            }
-                            text += line;
-                        }
-                        break;
-                }
-            }
-            
-            // Add the last subtitle if we have a complete one
-            if (state == 2 && !text.isEmpty()) {
-                subtitles.add(new Subtitle(index, start, end, text.trim()));
-            }
+
+    private void cancelLoad() {
+        loadGeneration++;
+        if (parseTask != null) {
+            parseTask.cancel(true);
+            parseTask = null;
         }
     }
-    
-    private void setupSubtitleListener() {
-        mediaPlayer.currentTimeProperty().addListener((observable, oldTime, newTime) -> {
-            updateSubtitle(newTime);
+
+    /**
+     * Runs on the parser thread. Streams the file through the format's parser
+     * and hands cues to the FX thread in batches.
+     */
+    private void parseSubtitleFile(File file, SubtitleParser parser, int generation, Consumer<Boolean> onFinished) {
+        CueStore[] batch = {new CueStore(CUE_BATCH_SIZE)};
+
+        try (Reader reader = CharsetDetector.openReader(file)) {
+            parser.parse(reader, (startMillis, endMillis, text) -> {
+                batch[0].add(startMillis, endMillis, text);
+                if (batch[0].size() >= CUE_BATCH_SIZE) {
+                    publishCues(generation, batch[0]);
+                    batch[0] = new CueStore(CUE_BATCH_SIZE);
+                }
+            });
+        } catch (IOException e) {
+            LOG.error("Unable to read subtitle {}", file, e);
+        } catch (RuntimeException e) {
+            // Would otherwise vanish into the discarded future and leave the load unfinished
+            LOG.error("Unable to parse subtitle {}", file, e);
+        }
+
+        if (!batch[0].isEmpty()) {
+            publishCues(generation, batch[0]);
+        }
+
+        Platform.runLater(() -> {
+            if (generation == loadGeneration) {
+                onFinished.accept(!cues.isEmpty());
+            }
         });
     }
-    
-    private void updateSubtitle(Duration currentTime) {
-        if (!isActive) return;
-        
-        for (Subtitle subtitle : subtitles) {
-            if (currentTime.greaterThanOrEqualTo(subtitle.getStartTime()) && 
-                currentTime.lessThan(subtitle.getEndTime())) {
-                Platform.runLater(() -> subtitleLabel.setText(subtitle.getText()));
+
+    /**
+     * Adds a batch of parsed cues on the FX thread, unless the load was superseded.
+     */
+    private void publishCues(int generation, CueStore batch) {
+        Platform.runLater(() -> {
+            if (generation != loadGeneration) {
                 return;
             }
-        }
-        
-        // No subtitle for current time
-        Platform.runLater(() -> subtitleLabel.setText(""));
+
+            FxWatchdog.run("Indexing " + batch.size() + " subtitle cues", () -> {
+                int indexed = cues.size();
+                cues.addAll(batch);
+                if (cues.isSorted()) {
+                    // Streamed files are almost always in order, so only the new tail needs indexing
+                    indexCuesFrom(indexed);
+                } else {
+                    buildCueIndex();
+                }
+            });
+
+            // The new cues may change what should be on screen right now
+            isActive = true;
+            resync();
+        });
     }
-    
-    private static class Subtitle {
-        private final int index;
-        private final Duration startTime;
-        private final Duration endTime;
-        private final String text;
-        
-        public Subtitle(int index, Duration startTime, Duration endTime, String text) {
-            this.index = index;
-            this.startTime = startTime;
-            this.endTime = endTime;
-            this.text = text;
+
+    /**
+     * Replaces all cues and rebuilds the lookup index.
+     * Package-private so the benchmarks can drive the lookup without a player.
+     */
+    void replaceCues(CueStore source) {
+        cues.clear();
+        cues.addAll(source);
+        buildCueIndex();
+    }
+
+    /**
+     * Sorts the cues by start time and rebuilds the running end-time maximum.
+     * Also resets the cursor so the next update re-resolves the active cue.
+     */
+    private void buildCueIndex() {
+        cues.sortByStart();
+        indexCuesFrom(0);
+    }
+
+    /**
+     * Extends the running end-time maximum over the cues from the given index
+     * on, which must already be in start order, and resets the cursor.
+     */
+    private void indexCuesFrom(int from) {
+        int count = cues.size();
+        if (maxEndUpTo.length < count) {
+            maxEndUpTo = Arrays.copyOf(maxEndUpTo, Math.max(count, maxEndUpTo.length * 2));
+        }
+
+        long maxEnd = from > 0 ? maxEndUpTo[from - 1] : Long.MIN_VALUE;
+        for (int i = from; i < count; i++) {
+            maxEnd = Math.max(maxEnd, cues.getEnd(i));
+            maxEndUpTo[i] = maxEnd;
         }
-        
-        public int getIndex() {
-            return index;
+
+        activeIndex = -1;
+        validFrom = Long.MAX_VALUE;
+        validUntil = Long.MIN_VALUE;
+    }
+
+    /**
+     * Finds the cue to display at the given time, or -1 if none is active.
+     * When cues overlap the earliest-starting one wins, as in file order.
+     * Also records the window [validFrom, validUntil) in which the answer holds.
+     */
+    int findActiveCue(long time) {
+        // Last cue starting at or before the given time
+        int count = cues.size();
+        int low = 0;
+        int high = count - 1;
+        int last = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (cues.getStart(mid) <= time) {
+                last = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
         }
-        
-        public Duration getStartTime() {
-            return startTime;
+
+        // Walk back through cues that may still overlap the given time
+        int found = -1;
+        for (int i = last; i >= 0 && maxEndUpTo[i] > time; i--) {
+            if (cues.getEnd(i) > time) {
+                found = i;
+            }
         }
-        
-        public Duration getEndTime() {
-            return endTime;
+
+        // The answer can only change when the active cue ends or the next cue starts
+        long nextStart = last + 1 < count ? cues.getStart(last + 1) : Long.MAX_VALUE;
+        validFrom = time;
+        validUntil = found >= 0 ? Math.min(cues.getEnd(found), nextStart) : nextStart;
+        return found;
+    }
+    
+    private void updateSubtitle(Duration currentTime) {
+        if (!isActive) return;
+
+        long time = (long) currentTime.toMillis();
+
+        // Forward playback inside the cached window needs no lookup at all
+        if (time >= validFrom && time < validUntil) {
+            validFrom = time;
+            cachedLookups.increment();
+            return;
         }
-        
-        public String getText() {
-            return text;
+
+        long lookupStart = System.nanoTime();
+        int index = findActiveCue(time);
+        lookupLatency.recordNanos(System.nanoTime() - lookupStart);
+        if (index == activeIndex) {
+            return;
         }
+        activeIndex = index;
+
+        // Only touch the label when the visible cue actually changes
+        subtitleLabel.setText(index >= 0 ? cues.getText(index) : "");
     }
-} 
\ No newline at end of file
+}
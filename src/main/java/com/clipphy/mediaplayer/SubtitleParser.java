@@ -0,0 +1,35 @@
+package com.clipphy.mediaplayer;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Service interface for subtitle formats.
+ * Implementations are discovered through {@link java.util.ServiceLoader}, so a new
+ * format only needs a provider entry in module-info.java and META-INF/services.
+ * A fresh instance is created for every file, so parsers may keep per-file state.
+ */
+public interface SubtitleParser {
+
+    /**
+     * Receives cues as they are parsed.
+     * The text is only valid for the duration of the call; copy it if it must be kept.
+     */
+    interface CueSink {
+        void cue(long startMillis, long endMillis, CharSequence text);
+    }
+
+    /**
+     * Returns the lower-case file extensions handled by this parser, without the dot.
+     */
+    String[] extensions();
+
+    /**
+     * Parses the whole input, passing every cue to the sink in file order.
+     * Implementations should return early if the calling thread is interrupted.
+     *
+     * @param reader The decoded subtitle text
+     * @param sink The receiver for parsed cues
+     */
+    void parse(Reader reader, CueSink sink) throws IOException;
+}
@@ -3,6 +3,7 @@ package com.clipphy.mediaplayer;
 import java.io.IOException;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -12,14 +13,24 @@ import javafx.stage.Stage;
 
 public class TAMediaPlayer extends Application {
 
+    private static final Log LOG = Log.forClass(TAMediaPlayer.class);
+
     private double xOffset = 0;
     private double yOffset = 0;
+    private MainController controller;
 
     @Override
     public void start(Stage primaryStage) throws IOException {
+        // Started without the launcher, e.g. from the JavaFX plugin
+        StartupTimer.mark(StartupTimer.JVM_UP);
+
+        // Decode the theme icons in the background while the layout loads
+        ThemeAssets.preload();
+
         // Load the main FXML layout
         FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/clipphy/mediaplayer/fxml/main-view.fxml"));
         Parent root = loader.load();
+        StartupTimer.mark(StartupTimer.FXML_LOADED);
         
         // Set up mouse events for window dragging (custom window decoration)
         setupWindowDragging(primaryStage, root);
@@ -28,7 +39,7 @@ public class TAMediaPlayer extends Application {
         Scene scene = new Scene(root);
         
         // Apply dark theme as default
-        scene.getStylesheets().add(getClass().getResource("/com/clipphy/mediaplayer/css/dark-theme.css").toExternalForm());
+        scene.getStylesheets().add(ThemeAssets.stylesheet("dark-theme.css"));
         
         // Configure the stage
         primaryStage.setTitle("TA Media Player Beta");
@@ -44,13 +55,37 @@ public class TAMediaPlayer extends Application {
         setApplicationIcons(primaryStage);
         
         // Get controller reference and set the stage AFTER the scene is set up
-        MainController controller = loader.getController();
+        controller = loader.getController();
         controller.setStage(primaryStage);
         
         // Show the stage
         primaryStage.show();
+        StartupTimer.mark(StartupTimer.STAGE_SHOWN);
+
+        // From here on the FX thread should never block long enough to freeze the controls
+        FxWatchdog.start();
+        Platform.runLater(() -> {
+            StartupTimer.report();
+            if (StartupTimer.isBenchmarkRun()) {
+                System.exit(0);
+            }
+        });
+
+        // Once the window is up, parse the other themes so switching to them is instant
+        Platform.runLater(ThemeAssets::retainStylesheets);
+
+        // Then start the background services and build the settings tabs
+        Platform.runLater(controller::startDeferredWork);
     }
     
+    @Override
+    public void stop() {
+        // Closing the window skips the Exit button, so save and release everything here too
+        if (controller != null) {
+            controller.shutdown();
+        }
+    }
+
     /**
      * Sets the application icons with multiple sizes
      */
@@ -58,28 +93,21 @@ public class TAMediaPlayer extends Application {
         // First try to load static icon resource
         try {
             // Try to load the static icon image
-            Image logoImage = new Image(getClass().getResourceAsStream("/com/clipphy/mediaplayer/images/logoicon.png"));
-            if (logoImage != null && !logoImage.isError()) {
+            Image logoImage = ThemeAssets.logo();
+            if (logoImage != null) {
                 stage.getIcons().add(logoImage);
                 return; // Successfully loaded the static image
             }
         } catch (Exception e) {
-            System.out.println("Static icon not found, using generated icons: " + e.getMessage());
+            LOG.info("Static icon not found, using generated icons: {}", e.getMessage());
         }
         
-        // Fall back to programmatically generated icons
-        try {
-            // Generate icons of different sizes
-            stage.getIcons().addAll(
-                LogoGenerator.generateLogo(16),  // Small icon
-                LogoGenerator.generateLogo(32),  // Medium icon
-                LogoGenerator.generateDetailedLogo(64),  // Large icon
-                LogoGenerator.generateDetailedLogo(128)  // Extra large icon
-            );
-        } catch (Exception e) {
-            System.err.println("Could not generate application icons: " + e.getMessage());
-            e.printStackTrace();
-        }
+        // Fall back to programmatically generated icons, rendered in the background in all sizes at once
+        LogoGenerator.loadIcons(icons -> {
+            for (int size : LogoGenerator.ICON_SIZES) {
+                stage.getIcons().add(icons.get(size));
+            }
+        });
     }
     
     private void setupWindowDragging(Stage stage, Parent root) {
@@ -0,0 +1,188 @@
+package com.clipphy.mediaplayer;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Base class for line-oriented subtitle parsers.
+ * Provides chunked line reading into a reused buffer and hand-written timestamp
+ * parsing, so subclasses can parse a file without regular expressions or
+ * per-line string allocation.
+ */
+public abstract class TextSubtitleParser implements SubtitleParser {
+
+    private Reader reader;
+    private final char[] buffer = new char[8192];
+    private int bufferPos = 0;
+    private int bufferLength = 0;
+    private boolean skipLineFeed = false;
+
+    // The current line, reused for every line of the file
+    protected final StringBuilder line = new StringBuilder(256);
+
+    // Position within the current line while parsing
+    protected int cursor;
+
+    @Override
+    public final void parse(Reader reader, CueSink sink) throws IOException {
+        this.reader = reader;
+        bufferPos = 0;
+        bufferLength = 0;
+        skipLineFeed = false;
+        parseLines(sink);
+    }
+
+    /**
+     * Parses the input line by line using {@link #readLine()}.
+     */
+    protected abstract void parseLines(CueSink sink) throws IOException;
+
+    /**
+     * Reads the next line into {@link #line}, handling \n, \r\n and \r endings.
+     *
+     * @return false at end of input or if the thread was interrupted
+     */
+    protected boolean readLine() throws IOException {
+        line.setLength(0);
+        if (Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+
+        boolean readAny = false;
+        while (true) {
+            if (bufferPos >= bufferLength) {
+                bufferLength = reader.read(buffer, 0, buffer.length);
+                bufferPos = 0;
+                if (bufferLength <= 0) {
+                    bufferLength = 0;
+                    return readAny;
+                }
+            }
+
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (buffer[bufferPos] == '\n') {
+                    bufferPos++;
+                    continue;
+                }
+            }
+
+            int lineStart = bufferPos;
+            while (bufferPos < bufferLength) {
+                char c = buffer[bufferPos];
+                if (c == '\n' || c == '\r') {
+                    line.append(buffer, lineStart, bufferPos - lineStart);
+                    bufferPos++;
+                    skipLineFeed = c == '\r';
+                    return true;
+                }
+                bufferPos++;
+            }
+            line.append(buffer, lineStart, bufferPos - lineStart);
+            readAny = true;
+        }
+    }
+
+    /**
+     * Parses a timestamp at the cursor: [hours:]minutes:seconds[(,|.)fraction].
+     * Fractions of any length are normalised to milliseconds.
+     *
+     * @return The time in milliseconds, or -1 if the text is not a timestamp
+     */
+    protected long parseTimestamp(int to) {
+        long first = readNumber(to);
+        if (first < 0 || !expect(':', to)) return -1;
+        long second = readNumber(to);
+        if (second < 0) return -1;
+
+        long hours = 0;
+        long minutes = first;
+        long seconds = second;
+        if (expect(':', to)) {
+            hours = first;
+            minutes = second;
+            seconds = readNumber(to);
+            if (seconds < 0) return -1;
+        }
+
+        long millis = 0;
+        if (cursor < to && (line.charAt(cursor) == ',' || line.charAt(cursor) == '.')) {
+            cursor++;
+            int digitsStart = cursor;
+            millis = readNumber(to);
+            if (millis < 0) return -1;
+
+            // Normalise fractions with fewer or more than three digits
+            int digits = cursor - digitsStart;
+            for (; digits < 3; digits++) millis *= 10;
+            for (; digits > 3; digits--) millis /= 10;
+        }
+
+        return ((hours * 60 + minutes) * 60 + seconds) * 1000 + millis;
+    }
+
+    protected long readNumber(int to) {
+        int start = cursor;
+        long value = 0;
+        while (cursor < to) {
+            char c = line.charAt(cursor);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            value = value * 10 + (c - '0');
+            cursor++;
+        }
+        return cursor == start ? -1 : value;
+    }
+
+    protected boolean expect(char c, int to) {
+        if (cursor < to && line.charAt(cursor) == c) {
+            cursor++;
+            return true;
+        }
+        return false;
+    }
+
+    protected void skipSpaces(int to) {
+        while (cursor < to && Character.isWhitespace(line.charAt(cursor))) {
+            cursor++;
+        }
+    }
+
+    /**
+     * Checks whether the current line starts with the given text at the given offset.
+     */
+    protected boolean lineStartsWith(String prefix, int from) {
+        if (line.length() - from < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (line.charAt(from + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index of the first character of the line that is not whitespace or a BOM.
+     */
+    protected int trimStart() {
+        int i = 0;
+        while (i < line.length() && (Character.isWhitespace(line.charAt(i)) || line.charAt(i) == '\uFEFF')) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the end of the line with trailing whitespace removed.
+     */
+    protected int trimEnd(int from) {
+        int i = line.length();
+        while (i > from && Character.isWhitespace(line.charAt(i - 1))) {
+            i--;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,131 @@
+package com.clipphy.mediaplayer;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javafx.scene.Group;
+import javafx.scene.Scene;
+import javafx.scene.image.Image;
+
+/**
+ * Icons and stylesheets of the dark and light themes, prepared once so that a
+ * theme switch only swaps references. Both icon sets are decoded on a
+ * background thread at startup. Stylesheets are served from the binary .bss
+ * files compiled by the build, falling back to the .css sources, and are kept
+ * parsed by a hidden scene so that switching back to a theme never reads or
+ * parses it again.
+ */
+public final class ThemeAssets {
+
+    private static final Log LOG = Log.forClass(ThemeAssets.class);
+
+    public static final String[] ICON_NAMES = {"folder", "subtitle", "fullscreen", "info", "settings", "playlist"};
+    public static final String[] THEMES = {"dark-theme.css", "light-theme.css", "system-theme.css"};
+
+    private static final String CSS_PATH = "/com/clipphy/mediaplayer/css/";
+    private static final String IMAGE_PATH = "/com/clipphy/mediaplayer/images/";
+
+    private static volatile Image logo;
+    private static final Map<String, Image> icons = new ConcurrentHashMap<>();
+    private static final Map<String, String> stylesheets = new ConcurrentHashMap<>();
+
+    // Scenes that are never shown; they hold every theme so the parsed sheets stay cached
+    private static final List<Scene> retainers = new ArrayList<>();
+
+    private ThemeAssets() {
+    }
+
+    /**
+     * Starts decoding the logo and both icon sets and resolving the stylesheets in the background.
+     */
+    public static void preload() {
+        Thread thread = new Thread(() -> {
+            logo();
+            for (String theme : THEMES) {
+                stylesheet(theme);
+            }
+            for (String name : ICON_NAMES) {
+                icon(name, true);
+                icon(name, false);
+            }
+        }, "theme-assets");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Returns a decoded icon, white for the dark theme and black for the light one.
+     * Waits for the background decode if it is still running, or decodes the icon itself if it has not started.
+     */
+    public static Image icon(String name, boolean dark) {
+        String variant = dark ? "white" : "black";
+        return icons.computeIfAbsent(variant + "/" + name, key -> {
+            URL url = ThemeAssets.class.getResource(IMAGE_PATH + key + "-" + variant + ".png");
+            if (url == null) {
+                LOG.warn("Icon not found: {}", key);
+                return null;
+            }
+            return new Image(url.toExternalForm());
+        });
+    }
+
+    /**
+     * Returns the application logo, decoded on first use and shared by the window icon and the About dialog.
+     *
+     * @return The logo, or null if it could not be loaded
+     */
+    public static Image logo() {
+        Image image = logo;
+        if (image == null) {
+            synchronized (ThemeAssets.class) {
+                image = logo;
+                if (image == null) {
+                    URL url = ThemeAssets.class.getResource(IMAGE_PATH + "logoicon.png");
+                    image = url == null ? null : new Image(url.toExternalForm());
+                    if (image != null && image.isError()) {
+                        image = null;
+                    }
+                    logo = image;
+                }
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Returns the URL of a theme stylesheet, the compiled .bss if present and the .css source otherwise.
+     */
+    public static String stylesheet(String themeName) {
+        return stylesheets.computeIfAbsent(themeName, name -> {
+            URL url = ThemeAssets.class.getResource(CSS_PATH + name.replaceFirst("\\.css$", ".bss"));
+            if (url == null) {
+                url = ThemeAssets.class.getResource(CSS_PATH + name);
+            }
+            return url == null ? null : url.toExternalForm();
+        });
+    }
+
+    /**
+     * Parses every theme stylesheet once and keeps it in the style cache for the
+     * lifetime of the application. Must be called on the FX thread.
+     */
+    public static void retainStylesheets() {
+        if (!retainers.isEmpty()) {
+            return;
+        }
+        for (String theme : THEMES) {
+            String url = stylesheet(theme);
+            if (url == null) {
+                continue;
+            }
+            Group root = new Group();
+            Scene scene = new Scene(root);
+            scene.getStylesheets().add(url);
+            root.applyCss();
+            retainers.add(scene);
+        }
+    }
+}
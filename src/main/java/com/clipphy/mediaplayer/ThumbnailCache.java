@@ -0,0 +1,128 @@
+package com.clipphy.mediaplayer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+
+/**
+ * Two-tier cache of thumbnail sheets. Recently used sheets stay in memory, least
+ * recently used first out once a byte budget is exceeded; finished sheets are
+ * also written to one file per media file, keyed by path, size and modification
+ * time, so a file seen before never needs its frames taken again.
+ * Disk reads and writes run on a background thread; all other methods must be
+ * called on the FX thread.
+ */
+public class ThumbnailCache {
+
+    private static final Log LOG = Log.forClass(ThumbnailCache.class);
+
+    private final Path directory;
+    private final long maxMemoryBytes;
+    private final LinkedHashMap<File, ThumbnailSheet> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes = 0;
+
+    private final ExecutorService io = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "thumbnail-io");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    /**
+     * @param directory Where sheets are stored on disk
+     * @param maxMemoryBytes How much memory the sheets kept in memory may use together
+     */
+    public ThumbnailCache(Path directory, long maxMemoryBytes) {
+        this.directory = directory;
+        this.maxMemoryBytes = maxMemoryBytes;
+    }
+
+    /**
+     * Returns the sheet of a file from memory, or null.
+     */
+    public ThumbnailSheet get(File file) {
+        return memory.get(file);
+    }
+
+    /**
+     * Looks a file up in memory, then on disk. The callback runs on the FX
+     * thread and receives null if the file has no stored sheet yet.
+     */
+    public void load(File file, Consumer<ThumbnailSheet> callback) {
+        ThumbnailSheet cached = memory.get(file);
+        if (cached != null) {
+            callback.accept(cached);
+            return;
+        }
+
+        io.execute(() -> {
+            ThumbnailSheet sheet = null;
+            try {
+                sheet = ThumbnailSheet.readFrom(pathFor(file));
+            } catch (NoSuchFileException e) {
+                // Not generated yet
+            } catch (IOException e) {
+                LOG.warn("Could not read thumbnails of {}: {}", file.getName(), e.getMessage());
+            }
+
+            ThumbnailSheet result = sheet;
+            Platform.runLater(() -> {
+                if (result != null) {
+                    keep(file, result);
+                }
+                callback.accept(result);
+            });
+        });
+    }
+
+    /**
+     * Keeps a finished sheet in memory and writes it to disk in the background.
+     */
+    public void put(File file, ThumbnailSheet sheet) {
+        keep(file, sheet);
+        io.execute(() -> {
+            try {
+                sheet.writeTo(pathFor(file));
+            } catch (IOException e) {
+                LOG.warn("Could not save thumbnails of {}: {}", file.getName(), e.getMessage());
+            }
+        });
+    }
+
+    private void keep(File file, ThumbnailSheet sheet) {
+        ThumbnailSheet previous = memory.put(file, sheet);
+        if (previous != null) {
+            memoryBytes -= previous.byteSize();
+        }
+        memoryBytes += sheet.byteSize();
+
+        // Evict least recently used sheets, but always keep the newest one
+        Iterator<Map.Entry<File, ThumbnailSheet>> eldest = memory.entrySet().iterator();
+        while (memoryBytes > maxMemoryBytes && memory.size() > 1 && eldest.hasNext()) {
+            Map.Entry<File, ThumbnailSheet> entry = eldest.next();
+            if (entry.getValue() == sheet) {
+                continue;
+            }
+            memoryBytes -= entry.getValue().byteSize();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Names the sheet of a file after its path, size and modification time, so a changed file gets a new sheet.
+     * Called on the I/O thread, as it reads the file's attributes.
+     */
+    private Path pathFor(File file) {
+        String key = String.format("%08x-%x-%x", file.getAbsolutePath().hashCode(), file.length(), file.lastModified());
+        return directory.resolve(key + ".thumbs");
+    }
+}
@@ -0,0 +1,161 @@
+package com.clipphy.mediaplayer;
+
+import java.io.File;
+import java.util.function.Consumer;
+
+import javafx.animation.PauseTransition;
+import javafx.scene.Scene;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.StackPane;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import javafx.scene.media.MediaView;
+import javafx.scene.paint.Color;
+import javafx.util.Duration;
+
+/**
+ * Takes preview frames of a video with its own muted player, in a view that is
+ * never shown, so the player the user watches is never seeked. Frames are taken
+ * one at a time at a fixed interval across the whole video and written into a
+ * thumbnail sheet that can be shown while it fills up.
+ * All methods must be called on the FX thread.
+ */
+public class ThumbnailGenerator {
+
+    private static final Log LOG = Log.forClass(ThumbnailGenerator.class);
+
+    public static final int TILE_WIDTH = 128;
+    public static final int TILE_HEIGHT = 72;
+
+    // At most this many frames per video, at least this far apart
+    private static final int MAX_TILES = 200;
+    private static final long MIN_INTERVAL_MILLIS = 5000;
+
+    // Time given to the decoder to show the frame after a seek
+    private static final Duration FRAME_SETTLE_TIME = Duration.millis(150);
+
+    private final StackPane frame = new StackPane();
+    private final MediaView view = new MediaView();
+    private final SnapshotParameters snapshotParameters = new SnapshotParameters();
+    private final WritableImage tileImage = new WritableImage(TILE_WIDTH, TILE_HEIGHT);
+    private final int[] tilePixels = new int[TILE_WIDTH * TILE_HEIGHT];
+    private final PauseTransition settleTimer = new PauseTransition(FRAME_SETTLE_TIME);
+
+    private MediaPlayer player;
+    private ThumbnailSheet sheet;
+    private int nextTile;
+    private Consumer<ThumbnailSheet> onComplete;
+
+    public ThumbnailGenerator() {
+        view.setFitWidth(TILE_WIDTH);
+        view.setFitHeight(TILE_HEIGHT);
+        view.setPreserveRatio(true);
+
+        // Letterbox inside a fixed-size frame so every tile has the same size
+        frame.getChildren().add(view);
+        frame.setMinSize(TILE_WIDTH, TILE_HEIGHT);
+        frame.setPrefSize(TILE_WIDTH, TILE_HEIGHT);
+        frame.setMaxSize(TILE_WIDTH, TILE_HEIGHT);
+        frame.setStyle("-fx-background-color: black;");
+        new Scene(frame, TILE_WIDTH, TILE_HEIGHT);
+
+        snapshotParameters.setFill(Color.BLACK);
+        settleTimer.setOnFinished(e -> captureTile());
+    }
+
+    /**
+     * Starts taking frames of a video, replacing any generation in progress.
+     *
+     * @param onStarted Receives the sheet as soon as its size is known, to show it while it fills up
+     * @param onComplete Receives the sheet once every frame has been taken
+     */
+    public void start(File file, Consumer<ThumbnailSheet> onStarted, Consumer<ThumbnailSheet> onComplete) {
+        cancel();
+        this.onComplete = onComplete;
+
+        try {
+            Media media = new Media(file.toURI().toString());
+            player = new MediaPlayer(media);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not open {} for thumbnails: {}", file.getName(), e.getMessage());
+            player = null;
+            return;
+        }
+
+        MediaPlayer current = player;
+        player.setMute(true);
+        player.setOnError(() -> {
+            if (player == current) {
+                LOG.warn("Thumbnail generation failed: {}", current.getError());
+                cancel();
+            }
+        });
+        player.setOnReady(() -> {
+            if (player != current) {
+                return;
+            }
+            Duration total = current.getMedia().getDuration();
+            if (current.getMedia().getWidth() <= 0 || total == null || total.isUnknown() || total.isIndefinite()) {
+                cancel(); // Audio only or a stream, nothing to preview
+                return;
+            }
+
+            long totalMillis = (long) total.toMillis();
+            long interval = Math.max(MIN_INTERVAL_MILLIS, (totalMillis + MAX_TILES - 1) / MAX_TILES);
+            int count = (int) Math.max(1, (totalMillis + interval - 1) / interval);
+            sheet = new ThumbnailSheet(TILE_WIDTH, TILE_HEIGHT, interval, count);
+            nextTile = 0;
+            onStarted.accept(sheet);
+
+            view.setMediaPlayer(current);
+            current.pause();
+            seekToNextTile();
+        });
+    }
+
+    /**
+     * Stops generating and releases the offscreen player. A partial sheet is dropped.
+     */
+    public void cancel() {
+        settleTimer.stop();
+        view.setMediaPlayer(null);
+        if (player != null) {
+            player.setOnReady(null);
+            player.setOnError(null);
+            player.dispose();
+            player = null;
+        }
+        sheet = null;
+        onComplete = null;
+    }
+
+    private void seekToNextTile() {
+        // Frames right on an interval boundary are often black scene cuts, so aim a little later
+        long offset = Math.min(1000, sheet.getIntervalMillis() / 4);
+        player.seek(Duration.millis(sheet.getTileTimeMillis(nextTile) + offset));
+        settleTimer.playFromStart();
+    }
+
+    private void captureTile() {
+        if (player == null || sheet == null) {
+            return;
+        }
+
+        frame.snapshot(snapshotParameters, tileImage);
+        tileImage.getPixelReader().getPixels(0, 0, TILE_WIDTH, TILE_HEIGHT,
+                PixelFormat.getIntArgbInstance(), tilePixels, 0, TILE_WIDTH);
+        sheet.setTile(nextTile, tilePixels);
+        nextTile++;
+
+        if (nextTile < sheet.getCapacity()) {
+            seekToNextTile();
+        } else {
+            ThumbnailSheet finished = sheet;
+            Consumer<ThumbnailSheet> callback = onComplete;
+            cancel();
+            callback.accept(finished);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.clipphy.mediaplayer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+
+/**
+ * Preview frames of one media file, taken at a fixed interval and stored as a
+ * single sprite sheet: all tiles stacked in one ARGB array. A sheet can be
+ * shown while it is still being filled; lookups fall back to the closest tile
+ * taken so far. On disk the pixels are stored deflated after a small header.
+ */
+public class ThumbnailSheet {
+
+    private static final int FILE_MAGIC = 0x54415448; // "TATH"
+    private static final int FILE_VERSION = 1;
+
+    private final int tileWidth;
+    private final int tileHeight;
+    private final long intervalMillis;
+    private final int[] pixels;
+    private final boolean[] present;
+    private int tileCount = 0;
+
+    public ThumbnailSheet(int tileWidth, int tileHeight, long intervalMillis, int capacity) {
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.intervalMillis = intervalMillis;
+        this.pixels = new int[tileWidth * tileHeight * capacity];
+        this.present = new boolean[capacity];
+    }
+
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    public int getTileHeight() {
+        return tileHeight;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public int getCapacity() {
+        return present.length;
+    }
+
+    public boolean isComplete() {
+        return tileCount == present.length;
+    }
+
+    /**
+     * Returns the time a tile is taken at.
+     */
+    public long getTileTimeMillis(int index) {
+        return index * intervalMillis;
+    }
+
+    /**
+     * Stores the ARGB pixels of one tile, row by row.
+     */
+    public void setTile(int index, int[] argb) {
+        System.arraycopy(argb, 0, pixels, index * tileWidth * tileHeight, tileWidth * tileHeight);
+        if (!present[index]) {
+            present[index] = true;
+            tileCount++;
+        }
+    }
+
+    /**
+     * Finds the tile to show for a time: the tile of its interval, or the closest one taken so far.
+     *
+     * @return The tile index, or -1 if no tile has been taken yet
+     */
+    public int tileFor(long millis) {
+        if (tileCount == 0) {
+            return -1;
+        }
+        int wanted = (int) Math.max(0, Math.min(present.length - 1, millis / intervalMillis));
+        for (int distance = 0; distance < present.length; distance++) {
+            if (wanted - distance >= 0 && present[wanted - distance]) {
+                return wanted - distance;
+            }
+            if (wanted + distance < present.length && present[wanted + distance]) {
+                return wanted + distance;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Copies one tile into an image, without allocating.
+     */
+    public void copyTile(int index, PixelWriter writer) {
+        writer.setPixels(0, 0, tileWidth, tileHeight, PixelFormat.getIntArgbInstance(),
+                pixels, index * tileWidth * tileHeight, tileWidth);
+    }
+
+    /**
+     * Returns the memory held by the pixels.
+     */
+    public long byteSize() {
+        return pixels.length * 4L;
+    }
+
+    /**
+     * Writes the sheet through a temporary file, so a crash never leaves a broken sheet behind.
+     */
+    public void writeTo(Path path) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        ByteBuffer bytes = ByteBuffer.allocate(pixels.length * 4);
+        bytes.asIntBuffer().put(pixels);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(tileWidth);
+            out.writeInt(tileHeight);
+            out.writeLong(intervalMillis);
+            out.writeInt(present.length);
+            for (boolean tile : present) {
+                out.writeBoolean(tile);
+            }
+            DeflaterOutputStream compressed = new DeflaterOutputStream(out, deflater, 64 * 1024);
+            compressed.write(bytes.array());
+            compressed.finish();
+        } finally {
+            deflater.end();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads a sheet written by {@link #writeTo(Path)}.
+     */
+    public static ThumbnailSheet readFrom(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                throw new IOException("Not a thumbnail sheet: " + path);
+            }
+            int tileWidth = in.readInt();
+            int tileHeight = in.readInt();
+            long intervalMillis = in.readLong();
+            int capacity = in.readInt();
+            if (tileWidth <= 0 || tileHeight <= 0 || intervalMillis <= 0 || capacity <= 0
+                    || (long) tileWidth * tileHeight * capacity > Integer.MAX_VALUE / 4) {
+                throw new IOException("Corrupt thumbnail sheet: " + path);
+            }
+
+            ThumbnailSheet sheet = new ThumbnailSheet(tileWidth, tileHeight, intervalMillis, capacity);
+            for (int i = 0; i < capacity; i++) {
+                if (in.readBoolean()) {
+                    sheet.present[i] = true;
+                    sheet.tileCount++;
+                }
+            }
+
+            byte[] bytes = new byte[sheet.pixels.length * 4];
+            Inflater inflater = new Inflater();
+            try {
+                new DataInputStream(new InflaterInputStream(in, inflater, 64 * 1024)).readFully(bytes);
+            } finally {
+                inflater.end();
+            }
+            ByteBuffer.wrap(bytes).asIntBuffer().get(sheet.pixels);
+            return sheet;
+        }
+    }
+}
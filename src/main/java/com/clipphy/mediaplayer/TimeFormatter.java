@@ -0,0 +1,60 @@
+package com.clipphy.mediaplayer;
+
+import javafx.util.Duration;
+
+/**
+ * Formats playback times as mm:ss, or h:mm:ss from one hour on.
+ * Each whole second is formatted once and kept, so a time label that ticks
+ * every second during playback reuses the same strings instead of building
+ * new ones. Must be used on the FX thread.
+ */
+public class TimeFormatter {
+
+    // Seconds beyond this are formatted on every call instead of kept
+    private static final int MAX_CACHED_SECONDS = 24 * 60 * 60;
+
+    private String[] cache = new String[60 * 60];
+
+    public String format(Duration time) {
+        return format(time == null || time.isUnknown() || time.isIndefinite() ? 0 : (int) time.toSeconds());
+    }
+
+    public String format(int totalSeconds) {
+        if (totalSeconds < 0) {
+            totalSeconds = 0;
+        }
+        if (totalSeconds >= MAX_CACHED_SECONDS) {
+            return build(totalSeconds);
+        }
+
+        if (totalSeconds >= cache.length) {
+            String[] grown = new String[Math.min(MAX_CACHED_SECONDS, Math.max(totalSeconds + 1, cache.length * 2))];
+            System.arraycopy(cache, 0, grown, 0, cache.length);
+            cache = grown;
+        }
+        String text = cache[totalSeconds];
+        if (text == null) {
+            text = build(totalSeconds);
+            cache[totalSeconds] = text;
+        }
+        return text;
+    }
+
+    private static String build(int totalSeconds) {
+        int hours = totalSeconds / 3600;
+        int minutes = totalSeconds / 60 % 60;
+        int seconds = totalSeconds % 60;
+
+        StringBuilder text = new StringBuilder(10);
+        if (hours > 0) {
+            text.append(hours).append(':');
+        }
+        appendTwoDigits(text, minutes).append(':');
+        appendTwoDigits(text, seconds);
+        return text.toString();
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder text, int value) {
+        return text.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
@@ -0,0 +1,206 @@
+package com.clipphy.mediaplayer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import javafx.application.Platform;
+
+/**
+ * Builds waveform pyramids on a background thread. A file is decoded once as a
+ * stream, a chunk at a time, straight into level 0 of the pyramid; the result
+ * is stored next to the other caches and read back on later visits. When the
+ * length of a file is not known up front, the bucket size doubles whenever the
+ * base level fills up, so memory stays bounded however long the file is.
+ */
+public class WaveformAnalyzer {
+
+    private static final Log LOG = Log.forClass(WaveformAnalyzer.class);
+
+    // Smallest number of audio frames summarized by one bucket
+    private static final int MIN_FRAMES_PER_BUCKET = 256;
+
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final AtomicInteger generation = new AtomicInteger();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "waveform-analyzer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    /**
+     * @param directory Where finished pyramids are stored
+     */
+    public WaveformAnalyzer(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Checks by name whether the built-in audio decoders can read a file.
+     */
+    public static boolean canAnalyze(File file) {
+        String name = file.getName().toLowerCase();
+        return name.endsWith(".wav") || name.endsWith(".aif") || name.endsWith(".aiff") || name.endsWith(".au");
+    }
+
+    /**
+     * Loads or builds the waveform of a file, replacing any earlier request.
+     * The callback runs on the FX thread and is skipped if the request was
+     * replaced or cancelled, or the file could not be decoded.
+     */
+    public void analyze(File file, Consumer<WaveformPyramid> callback) {
+        int request = generation.incrementAndGet();
+        worker.execute(() -> {
+            if (generation.get() != request) {
+                return;
+            }
+
+            Path cacheFile = directory.resolve(String.format("%08x-%x-%x.peaks",
+                    file.getAbsolutePath().hashCode(), file.length(), file.lastModified()));
+            WaveformPyramid pyramid = null;
+            try {
+                pyramid = WaveformPyramid.readFrom(cacheFile);
+            } catch (NoSuchFileException e) {
+                // Not analyzed yet
+            } catch (IOException e) {
+                LOG.warn("Could not read waveform of {}: {}", file.getName(), e.getMessage());
+            }
+
+            if (pyramid == null) {
+                try {
+                    pyramid = decode(file, request);
+                    if (pyramid != null) {
+                        pyramid.writeTo(cacheFile);
+                    }
+                } catch (UnsupportedAudioFileException | IOException | IllegalArgumentException e) {
+                    // The last one comes from AudioSystem when it cannot convert the encoding to PCM
+                    LOG.warn("Could not analyze {}: {}", file.getName(), e.getMessage());
+                }
+            }
+
+            WaveformPyramid result = pyramid;
+            if (result != null) {
+                Platform.runLater(() -> {
+                    if (generation.get() == request) {
+                        callback.accept(result);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Drops the pending request and stops any decoding in progress.
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Decodes a file into level 0 of a pyramid, as 16-bit samples mixed to one min/max pair per bucket.
+     *
+     * @return The pyramid, or null if the request was replaced meanwhile
+     */
+    private WaveformPyramid decode(File file, int request) throws UnsupportedAudioFileException, IOException {
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(file)) {
+            AudioFormat sourceFormat = source.getFormat();
+            AudioFormat pcmFormat = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, sourceFormat.getSampleRate(),
+                    16, sourceFormat.getChannels(), sourceFormat.getChannels() * 2, sourceFormat.getSampleRate(), false);
+
+            try (AudioInputStream pcm = sourceFormat.matches(pcmFormat) ? source : AudioSystem.getAudioInputStream(pcmFormat, source)) {
+                int channels = pcmFormat.getChannels();
+                int frameBytes = channels * 2;
+
+                // With a known length, pick the bucket size that fits; otherwise start small and grow
+                long frames = source.getFrameLength();
+                long framesPerBucket = MIN_FRAMES_PER_BUCKET;
+                if (frames > 0) {
+                    while (frames / framesPerBucket > WaveformPyramid.MAX_BASE_BUCKETS) {
+                        framesPerBucket *= 2;
+                    }
+                }
+
+                byte[] base = new byte[(int) Math.min(WaveformPyramid.MAX_BASE_BUCKETS,
+                        frames > 0 ? frames / framesPerBucket + 1 : 4096) * 2];
+                int buckets = 0;
+                long framesInBucket = 0;
+                int min = Short.MAX_VALUE;
+                int max = Short.MIN_VALUE;
+
+                byte[] buffer = new byte[READ_BUFFER_BYTES - READ_BUFFER_BYTES % frameBytes];
+                int carried = 0;
+                int read;
+                while ((read = pcm.read(buffer, carried, buffer.length - carried)) > 0) {
+                    if (generation.get() != request) {
+                        return null; // Replaced or cancelled
+                    }
+
+                    int available = carried + read;
+                    int wholeFrames = available / frameBytes;
+                    int offset = 0;
+                    for (int frame = 0; frame < wholeFrames; frame++) {
+                        for (int channel = 0; channel < channels; channel++) {
+                            int sample = (short) ((buffer[offset + 1] << 8) | (buffer[offset] & 0xff));
+                            offset += 2;
+                            if (sample < min) {
+                                min = sample;
+                            }
+                            if (sample > max) {
+                                max = sample;
+                            }
+                        }
+
+                        if (++framesInBucket < framesPerBucket) {
+                            continue;
+                        }
+                        if (buckets * 2 == base.length) {
+                            if (buckets == WaveformPyramid.MAX_BASE_BUCKETS) {
+                                // Full: merge pairs and keep filling this bucket up to twice the size
+                                base = Arrays.copyOf(WaveformPyramid.halve(base), WaveformPyramid.MAX_BASE_BUCKETS * 2);
+                                buckets /= 2;
+                                framesPerBucket *= 2;
+                                continue;
+                            }
+                            base = Arrays.copyOf(base, Math.min(base.length * 2, WaveformPyramid.MAX_BASE_BUCKETS * 2));
+                        }
+                        base[buckets * 2] = (byte) (min >> 8);
+                        base[buckets * 2 + 1] = (byte) (max >> 8);
+                        buckets++;
+                        framesInBucket = 0;
+                        min = Short.MAX_VALUE;
+                        max = Short.MIN_VALUE;
+                    }
+
+                    // Keep a partial frame for the next read
+                    carried = available - offset;
+                    System.arraycopy(buffer, offset, buffer, 0, carried);
+                }
+
+                // The last, partial bucket
+                if (framesInBucket > 0 && buckets * 2 < base.length) {
+                    base[buckets * 2] = (byte) (min >> 8);
+                    base[buckets * 2 + 1] = (byte) (max >> 8);
+                    buckets++;
+                }
+                if (buckets == 0) {
+                    return null;
+                }
+                return new WaveformPyramid(framesPerBucket, pcmFormat.getFrameRate(), base, buckets);
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.clipphy.mediaplayer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Minimum and maximum sample levels of an audio file at several resolutions.
+ * Level 0 holds one min/max pair per bucket of audio frames; every level above
+ * combines two buckets of the level below, so a view of any width can draw
+ * from the level with about one bucket per pixel. Levels are 8-bit, and the
+ * bucket size grows with the length of the file, so even a recording of many
+ * hours stays within a fixed number of buckets.
+ */
+public class WaveformPyramid {
+
+    private static final int FILE_MAGIC = 0x54415746; // "TAWF"
+    private static final int FILE_VERSION = 1;
+
+    // Level 0 never holds more buckets than this
+    public static final int MAX_BASE_BUCKETS = 1 << 20;
+
+    // Levels stop once they are this small
+    private static final int MIN_LEVEL_BUCKETS = 64;
+
+    private final long framesPerBucket;
+    private final float frameRate;
+    // levels[level] holds min/max pairs: [min0, max0, min1, max1, ...]
+    private final byte[][] levels;
+
+    WaveformPyramid(long framesPerBucket, float frameRate, byte[] base, int baseBuckets) {
+        this.framesPerBucket = framesPerBucket;
+        this.frameRate = frameRate;
+
+        int count = 1;
+        for (int buckets = baseBuckets; buckets > MIN_LEVEL_BUCKETS; buckets = (buckets + 1) / 2) {
+            count++;
+        }
+        levels = new byte[count][];
+        levels[0] = Arrays.copyOf(base, baseBuckets * 2);
+        for (int level = 1; level < count; level++) {
+            levels[level] = halve(levels[level - 1]);
+        }
+    }
+
+    private WaveformPyramid(long framesPerBucket, float frameRate, byte[][] levels) {
+        this.framesPerBucket = framesPerBucket;
+        this.frameRate = frameRate;
+        this.levels = levels;
+    }
+
+    /**
+     * Combines neighbouring min/max pairs into one, halving the number of buckets.
+     */
+    static byte[] halve(byte[] pairs) {
+        int buckets = pairs.length / 2;
+        byte[] result = new byte[((buckets + 1) / 2) * 2];
+        for (int i = 0; i < buckets; i += 2) {
+            byte min = pairs[i * 2];
+            byte max = pairs[i * 2 + 1];
+            if (i + 1 < buckets) {
+                min = (byte) Math.min(min, pairs[i * 2 + 2]);
+                max = (byte) Math.max(max, pairs[i * 2 + 3]);
+            }
+            result[i] = min;
+            result[i + 1] = max;
+        }
+        return result;
+    }
+
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    public int getBucketCount(int level) {
+        return levels[level].length / 2;
+    }
+
+    /**
+     * Returns the duration the waveform covers, in seconds.
+     */
+    public double getDurationSeconds() {
+        return getBucketCount(0) * (double) framesPerBucket / frameRate;
+    }
+
+    /**
+     * Picks the coarsest level that still has at least one bucket per pixel.
+     */
+    public int levelFor(double pixels) {
+        int level = 0;
+        while (level + 1 < levels.length && getBucketCount(level + 1) >= pixels) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Returns the lowest level of a range of buckets, from -128 to 127.
+     */
+    public int min(int level, int from, int to) {
+        byte[] pairs = levels[level];
+        int min = Byte.MAX_VALUE;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, pairs[i * 2]);
+        }
+        return min;
+    }
+
+    /**
+     * Returns the highest level of a range of buckets, from -128 to 127.
+     */
+    public int max(int level, int from, int to) {
+        byte[] pairs = levels[level];
+        int max = Byte.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, pairs[i * 2 + 1]);
+        }
+        return max;
+    }
+
+    /**
+     * Writes all levels through a temporary file, so a crash never leaves a broken file behind.
+     */
+    public void writeTo(Path path) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeLong(framesPerBucket);
+            out.writeFloat(frameRate);
+            out.writeInt(levels.length);
+            for (byte[] level : levels) {
+                out.writeInt(level.length);
+                out.write(level);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads a pyramid written by {@link #writeTo(Path)}.
+     */
+    public static WaveformPyramid readFrom(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                throw new IOException("Not a waveform file: " + path);
+            }
+            long framesPerBucket = in.readLong();
+            float frameRate = in.readFloat();
+            int count = in.readInt();
+            if (framesPerBucket <= 0 || frameRate <= 0 || count <= 0 || count > 32) {
+                throw new IOException("Corrupt waveform file: " + path);
+            }
+
+            byte[][] levels = new byte[count][];
+            for (int level = 0; level < count; level++) {
+                int length = in.readInt();
+                if (length < 0 || length > MAX_BASE_BUCKETS * 2) {
+                    throw new IOException("Corrupt waveform file: " + path);
+                }
+                levels[level] = new byte[length];
+                in.readFully(levels[level]);
+            }
+            return new WaveformPyramid(framesPerBucket, frameRate, levels);
+        }
+    }
+}
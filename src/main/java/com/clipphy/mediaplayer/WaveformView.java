@@ -0,0 +1,78 @@
+package com.clipphy.mediaplayer;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+
+/**
+ * Draws a waveform pyramid across its full width, from the level with about
+ * one bucket per pixel, so drawing costs the same for a short clip and a
+ * recording of many hours. Redraws only when the size, the waveform or the
+ * colour changes.
+ */
+public class WaveformView extends Region {
+
+    private final Canvas canvas = new Canvas();
+    private WaveformPyramid pyramid;
+    private Color color = Color.gray(1.0, 0.35);
+
+    public WaveformView() {
+        getChildren().add(canvas);
+        setMouseTransparent(true);
+    }
+
+    /**
+     * Shows a waveform, or clears the view if null.
+     */
+    public void setPyramid(WaveformPyramid pyramid) {
+        this.pyramid = pyramid;
+        redraw();
+    }
+
+    public void setColor(Color color) {
+        this.color = color;
+        redraw();
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double width = snapSizeX(getWidth());
+        double height = snapSizeY(getHeight());
+        if (canvas.getWidth() != width || canvas.getHeight() != height) {
+            canvas.setWidth(width);
+            canvas.setHeight(height);
+            redraw();
+        }
+    }
+
+    private void redraw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        gc.clearRect(0, 0, width, height);
+        if (pyramid == null || width < 1 || height < 1) {
+            return;
+        }
+
+        int columns = (int) width;
+        int level = pyramid.levelFor(columns);
+        int buckets = pyramid.getBucketCount(level);
+        double middle = height / 2;
+        double scale = middle / 128.0;
+
+        gc.setFill(color);
+        for (int x = 0; x < columns; x++) {
+            int from = (int) ((long) x * buckets / columns);
+            int to = Math.max(from + 1, (int) ((long) (x + 1) * buckets / columns));
+            if (from >= buckets) {
+                break;
+            }
+            int max = pyramid.max(level, from, Math.min(to, buckets));
+            int min = pyramid.min(level, from, Math.min(to, buckets));
+            double top = middle - (max + 1) * scale;
+            double bottom = middle - min * scale;
+            gc.fillRect(x, top, 1, Math.max(1, bottom - top));
+        }
+    }
+}
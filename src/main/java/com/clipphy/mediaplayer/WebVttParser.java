@@ -0,0 +1,173 @@
+package com.clipphy.mediaplayer;
+
+import java.io.IOException;
+
+/**
+ * Streaming parser for WebVTT subtitle files.
+ * Skips the header and NOTE, STYLE and REGION blocks, ignores cue settings and
+ * strips inline markup such as &lt;b&gt;, &lt;c.class&gt; and karaoke timestamps.
+ */
+public class WebVttParser extends TextSubtitleParser {
+
+    // Reused for every cue so parsing allocates nothing per cue
+    private final StringBuilder text = new StringBuilder(256);
+
+    // Results of the last successful parseTimeRange call
+    private long parsedStart;
+    private long parsedEnd;
+
+    @Override
+    public String[] extensions() {
+        return new String[] {"vtt"};
+    }
+
+    @Override
+    protected void parseLines(CueSink sink) throws IOException {
+        long start = 0;
+        long end = 0;
+
+        // 0: between blocks, 1: skipping a non-cue block, 2: expecting timing, 3: reading cue text
+        int state = 0;
+
+        while (readLine()) {
+            int from = trimStart();
+            int to = trimEnd(from);
+            boolean blank = from == to;
+
+            switch (state) {
+                case 0: // Start of a block
+                    if (blank) {
+                        break;
+                    }
+                    if (lineStartsWith("WEBVTT", from) || lineStartsWith("NOTE", from)
+                            || lineStartsWith("STYLE", from) || lineStartsWith("REGION", from)) {
+                        state = 1;
+                    } else if (parseTimeRange(from, to)) {
+                        start = parsedStart;
+                        end = parsedEnd;
+                        text.setLength(0);
+                        state = 3;
+                    } else {
+                        // Cue identifier, the timing line follows
+                        state = 2;
+                    }
+                    break;
+
+                case 1: // Skipping header, comment or style block
+                    if (blank) {
+                        state = 0;
+                    }
+                    break;
+
+                case 2: // Expecting timing after an identifier
+                    if (blank) {
+                        state = 0;
+                    } else if (parseTimeRange(from, to)) {
+                        start = parsedStart;
+                        end = parsedEnd;
+                        text.setLength(0);
+                        state = 3;
+                    } else {
+                        state = 1;
+                    }
+                    break;
+
+                case 3: // Cue payload
+                    if (blank) {
+                        sink.cue(start, end, text);
+                        state = 0;
+                    } else {
+                        if (text.length() > 0) {
+                            text.append('\n');
+                        }
+                        appendPlainText(from, to);
+                    }
+                    break;
+            }
+        }
+
+        if (state == 3 && text.length() > 0) {
+            sink.cue(start, end, text);
+        }
+    }
+
+    /**
+     * Parses "[HH:]MM:SS.mmm --> [HH:]MM:SS.mmm [settings]".
+     */
+    private boolean parseTimeRange(int from, int to) {
+        cursor = from;
+        long start = parseTimestamp(to);
+        if (start < 0) {
+            return false;
+        }
+
+        skipSpaces(to);
+        if (!lineStartsWith("-->", cursor)) {
+            return false;
+        }
+        cursor += 3;
+        skipSpaces(to);
+
+        long end = parseTimestamp(to);
+        if (end < 0) {
+            return false;
+        }
+
+        parsedStart = start;
+        parsedEnd = end;
+        return true;
+    }
+
+    /**
+     * Appends a line of cue text with tags removed and basic entities decoded.
+     */
+    private void appendPlainText(int from, int to) {
+        int i = from;
+        while (i < to) {
+            char c = line.charAt(i);
+            if (c == '<') {
+                // Skip the whole tag, including timestamps like <00:01.000>
+                while (i < to && line.charAt(i) != '>') {
+                    i++;
+                }
+                i++;
+            } else if (c == '&') {
+                i = appendEntity(i, to);
+            } else {
+                text.append(c);
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Decodes the character reference starting at the given '&amp;'.
+     *
+     * @return The index just after the reference
+     */
+    private int appendEntity(int at, int to) {
+        if (lineStartsWith("&amp;", at)) {
+            text.append('&');
+            return at + 5;
+        } else if (lineStartsWith("&lt;", at)) {
+            text.append('<');
+            return at + 4;
+        } else if (lineStartsWith("&gt;", at)) {
+            text.append('>');
+            return at + 4;
+        } else if (lineStartsWith("&nbsp;", at)) {
+            text.append(' ');
+            return at + 6;
+        } else if (lineStartsWith("&quot;", at)) {
+            text.append('"');
+            return at + 6;
+        } else if (lineStartsWith("&apos;", at)) {
+            text.append('\'');
+            return at + 6;
+        } else if (lineStartsWith("&lrm;", at) || lineStartsWith("&rlm;", at)) {
+            return at + 5;
+        }
+        text.append('&');
+        return at + 1;
+    }
+}
@@ -3,7 +3,14 @@ module com.clipphy.mediaplayer {
     requires javafx.fxml;
     requires javafx.media;
     requires java.desktop;
+    requires java.management;
     
     opens com.clipphy.mediaplayer to javafx.fxml;
     exports com.clipphy.mediaplayer;
+
+    uses com.clipphy.mediaplayer.SubtitleParser;
+    provides com.clipphy.mediaplayer.SubtitleParser with
+            com.clipphy.mediaplayer.SrtParser,
+            com.clipphy.mediaplayer.WebVttParser,
+            com.clipphy.mediaplayer.AssParser;
 } 
\ No newline at end of file